@@ -0,0 +1,89 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.model.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(long id, String userName) {
+        User user = new User(userName, userName + "@example.com", "password");
+        user.setUserId(id);
+        user.setRoles(Set.of(new Role(1, AppRole.ROLE_USER)));
+        return user;
+    }
+
+    static Category category() {
+        return new Category(1L, "Electronics", new ArrayList<>());
+    }
+
+    static Product product(long id, Category category, User seller) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setImage("image-" + id + ".png");
+        product.setQuantity(1_000_000);
+        product.setPrice(100.0 + id);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0 + id);
+        product.setCategory(category);
+        product.setUser(seller);
+        return product;
+    }
+
+    static List<Product> products(int count) {
+        Category category = category();
+        User seller = user(2L, "seller");
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(product(i, category, seller));
+        }
+        return products;
+    }
+
+    static Cart cart(User user, List<Product> products) {
+        Cart cart = new Cart();
+        cart.setCartId(1L);
+        cart.setUser(user);
+        long itemId = 1;
+        for (Product product : products) {
+            CartItem cartItem = new CartItem(itemId++, cart, product, 1, product.getDiscount(), product.getSpecialPrice());
+            cart.getCartItems().add(cartItem);
+        }
+        return cart;
+    }
+
+    static Address address(User user) {
+        Address address = new Address("Main Street", "Tower One", "Springfield", "US", "Illinois", "62701");
+        address.setAddressId(1L);
+        address.setUser(user);
+        return address;
+    }
+
+    static Order order(User user, List<Product> products) {
+        Order order = new Order();
+        order.setOrderId(1L);
+        order.setEmail(user.getEmail());
+        order.setOrderDate(LocalDate.now());
+        order.setOrderStatus("Accepted!!");
+        order.setAddress(address(user));
+        Payment payment = new Payment("card", "pg-1", "succeeded", "ok", "Stripe");
+        payment.setPaymentId(1L);
+        order.setPayment(payment);
+        long itemId = 1;
+        double total = 0.0;
+        for (Product product : products) {
+            order.getOrderItems().add(new OrderItem(itemId++, product, order, 1, product.getDiscount(), product.getSpecialPrice()));
+            total += product.getSpecialPrice();
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+}
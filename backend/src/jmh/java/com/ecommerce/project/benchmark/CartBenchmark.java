@@ -0,0 +1,123 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.Repository.CartItemRepository;
+import com.ecommerce.project.Repository.CartRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.service.CartPricing;
+import com.ecommerce.project.service.CartServiceImpl;
+import com.ecommerce.project.service.CartWriteBehindStore;
+import com.ecommerce.project.util.AuthUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Adding a product to an existing cart of {@code cartSize} lines against stubbed repositories,
+ * and a quantity click served by the write-behind store (including the journal fsync).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"1", "30"})
+    private int cartSize;
+
+    private CartServiceImpl cartService;
+    private CartWriteBehindStore cartWriteBehindStore;
+    private Path journalDir;
+    private Long productId;
+    private Long cartProductId;
+    private String email;
+    private int nextDelta = 1;
+
+    @Setup
+    public void setUp() throws IOException {
+        User user = BenchmarkFixtures.user(1L, "user1");
+        List<Product> products = BenchmarkFixtures.products(cartSize + 1);
+        Product newProduct = products.get(cartSize);
+        List<Product> cartProducts = products.subList(0, cartSize);
+        productId = newProduct.getProductId();
+        cartProductId = cartProducts.get(0).getProductId();
+        email = user.getEmail();
+
+        AuthUtil authUtil = mock(AuthUtil.class);
+        when(authUtil.loggedInEmail()).thenReturn(user.getEmail());
+        when(authUtil.loggedInUser()).thenReturn(user);
+
+        CartRepository cartRepository = mock(CartRepository.class);
+        when(cartRepository.findCartByEmail(anyString()))
+                .thenAnswer(invocation -> BenchmarkFixtures.cart(user, cartProducts));
+        when(cartRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartRepository.findCartWithItemsByEmail(anyString()))
+                .thenAnswer(invocation -> BenchmarkFixtures.cart(user, cartProducts));
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(newProduct));
+
+        CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+        when(cartItemRepository.findCartItemByProductIdAndCartId(anyLong(), anyLong())).thenReturn(null);
+        when(cartItemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        journalDir = Files.createTempDirectory("cart-journal");
+        cartWriteBehindStore = new CartWriteBehindStore();
+        ReflectionTestUtils.setField(cartWriteBehindStore, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(cartWriteBehindStore, "productMapper", new ProductMapperImpl());
+        ReflectionTestUtils.setField(cartWriteBehindStore, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(cartWriteBehindStore, "enabled", true);
+        ReflectionTestUtils.setField(cartWriteBehindStore, "journalDir", journalDir.toString());
+        cartWriteBehindStore.init();
+
+        cartService = new CartServiceImpl();
+        ReflectionTestUtils.setField(cartService, "authUtil", authUtil);
+        ReflectionTestUtils.setField(cartService, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(cartService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(cartService, "cartItemRepository", cartItemRepository);
+        ReflectionTestUtils.setField(cartService, "cartMapper", new CartMapperImpl());
+        ReflectionTestUtils.setField(cartService, "productMapper", new ProductMapperImpl());
+        ReflectionTestUtils.setField(cartService, "cartWriteBehindStore", new CartWriteBehindStore());
+        ReflectionTestUtils.setField(cartService, "cartPricing", new CartPricing());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(journalDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public CartDTO addProductToCart() {
+        return cartService.addProductToCart(productId, 1);
+    }
+
+    @Benchmark
+    public CartDTO updateQuantityWriteBehind() {
+        //alternate +1/-1 so the line never reaches zero
+        nextDelta = -nextDelta;
+        return cartWriteBehindStore.updateQuantity(email, cartProductId, -nextDelta);
+    }
+}
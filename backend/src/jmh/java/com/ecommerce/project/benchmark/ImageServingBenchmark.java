@@ -0,0 +1,128 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.service.ImageServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Image requests from eight concurrent clients: hot thumbnails served from memory,
+ * full originals copied with transferTo, and byte ranges of an original.
+ * Response bodies are counted and discarded so only the serving path is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ImageServingBenchmark {
+
+    private static final int THUMBNAILS = 64;
+    private static final int THUMBNAIL_BYTES = 12 * 1024;
+    private static final int ORIGINAL_BYTES = 1024 * 1024;
+
+    private ImageServer imageServer;
+    private Path imageDir;
+    private String[] thumbnails;
+    private String original;
+
+    @Setup
+    public void setUp() throws IOException {
+        imageDir = Files.createTempDirectory("image-benchmark");
+        thumbnails = new String[THUMBNAILS];
+        for (int i = 0; i < THUMBNAILS; i++) {
+            thumbnails[i] = String.format("%064x", i) + "-160.jpg";
+            Files.write(imageDir.resolve(thumbnails[i]), new byte[THUMBNAIL_BYTES]);
+        }
+        original = "f".repeat(64) + ".jpg";
+        Files.write(imageDir.resolve(original), new byte[ORIGINAL_BYTES]);
+
+        imageServer = new ImageServer();
+        ReflectionTestUtils.setField(imageServer, "meterRegistry",
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(imageServer, "path", imageDir.toString());
+        ReflectionTestUtils.setField(imageServer, "cacheMaxBytes", 8L * 1024 * 1024);
+        ReflectionTestUtils.setField(imageServer, "cacheMaxFileBytes", 64L * 1024);
+        ReflectionTestUtils.setField(imageServer, "sendfileMinBytes", 48L * 1024);
+        imageServer.init();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(imageDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long hotThumbnail() throws IOException {
+        return serve(thumbnails[ThreadLocalRandom.current().nextInt(THUMBNAILS)], null);
+    }
+
+    @Benchmark
+    public long fullOriginal() throws IOException {
+        return serve(original, null);
+    }
+
+    @Benchmark
+    public long originalRange() throws IOException {
+        long start = ThreadLocalRandom.current().nextInt(ORIGINAL_BYTES - 65536);
+        return serve(original, "bytes=" + start + "-" + (start + 65535));
+    }
+
+    private long serve(String fileName, String range) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + fileName);
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        DiscardingResponse response = new DiscardingResponse();
+        imageServer.serve(fileName, request, response);
+        return response.bytesWritten;
+    }
+
+    private static class DiscardingResponse extends MockHttpServletResponse {
+        private long bytesWritten;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                bytesWritten++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytesWritten += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
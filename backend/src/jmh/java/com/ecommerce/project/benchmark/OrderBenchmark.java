@@ -0,0 +1,89 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.Repository.*;
+import com.ecommerce.project.mapper.OrderMapper;
+import com.ecommerce.project.mapper.OrderMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.service.CartPricing;
+import com.ecommerce.project.service.CartWriteBehindStore;
+import com.ecommerce.project.service.OrderServiceImpl;
+import com.ecommerce.project.service.StockReservationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkout of a cart with {@code cartSize} lines against stubbed repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({"1", "30"})
+    private int cartSize;
+
+    private OrderServiceImpl orderService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(1L, "user1");
+        List<Product> products = BenchmarkFixtures.products(cartSize);
+        products.forEach(product -> product.setQuantity(Integer.MAX_VALUE));
+
+        CartRepository cartRepository = mock(CartRepository.class);
+        when(cartRepository.findCartWithItemsByEmail(anyString()))
+                .thenAnswer(invocation -> BenchmarkFixtures.cart(user, products));
+
+        AddressRepository addressRepository = mock(AddressRepository.class);
+        when(addressRepository.findById(1L)).thenReturn(Optional.of(BenchmarkFixtures.address(user)));
+
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderMapper orderMapper = new OrderMapperImpl();
+        ReflectionTestUtils.setField(orderMapper, "productMapper", new ProductMapperImpl());
+
+        orderService = new OrderServiceImpl();
+        ReflectionTestUtils.setField(orderService, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(orderService, "addressRepository", addressRepository);
+        ReflectionTestUtils.setField(orderService, "paymentRepository", paymentRepository);
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "orderItemRepository", orderItemRepository);
+        ReflectionTestUtils.setField(orderService, "cartItemRepository", mock(CartItemRepository.class));
+        ReflectionTestUtils.setField(orderService, "sellerOrderRepository", mock(SellerOrderRepository.class));
+        ReflectionTestUtils.setField(orderService, "stockReservationService", mock(StockReservationService.class));
+        ReflectionTestUtils.setField(orderService, "cartWriteBehindStore", new CartWriteBehindStore());
+        ReflectionTestUtils.setField(orderService, "cartPricing", new CartPricing());
+        ReflectionTestUtils.setField(orderService, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderService, "eventPublisher", mock(ApplicationEventPublisher.class));
+    }
+
+    @Benchmark
+    public OrderDTO placeOrder() {
+        return orderService.placeOrder(user.getEmail(), 1L, "card", "Stripe", "pg-1", "succeeded", "ok");
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.service.ProductImagePipeline;
+import com.ecommerce.project.service.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DTO assembly for the public product listing against a stubbed repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ProductServiceImpl productService;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        List<Product> products = BenchmarkFixtures.products(pageSize);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(products, PageRequest.of(0, pageSize), 10_000));
+
+        productService = new ProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productService, "productMapper", new ProductMapperImpl());
+        ReflectionTestUtils.setField(productService, "imageBaseUrl", "http://localhost:8080/images");
+        ReflectionTestUtils.setField(productService, "productImagePipeline", new ProductImagePipeline());
+    }
+
+    @Benchmark
+    public ProductResponse getAllProducts() {
+        return productService.getAllProducts(0, pageSize, "productId", "asc", null, null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.project.Repository;
+
+import com.ecommerce.project.model.AnalyticsRollup;
+import com.ecommerce.project.model.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+
+    Optional<AnalyticsRollup> findByGranularityAndBucketStart(RollupGranularity granularity, LocalDateTime bucketStart);
+
+    List<AnalyticsRollup> findByGranularityAndBucketStartBetween(RollupGranularity granularity,
+                                                                 LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("UPDATE AnalyticsRollup r SET r.orderCount = r.orderCount + ?3, r.revenue = r.revenue + ?4, " +
+            "r.productCount = r.productCount + ?5 WHERE r.granularity = ?1 AND r.bucketStart = ?2")
+    int increment(RollupGranularity granularity, LocalDateTime bucketStart, long orders, double revenue, long products);
+
+    @Modifying
+    @Query("UPDATE AnalyticsRollup r SET r.orderCount = ?3, r.revenue = ?4, r.productCount = ?5 " +
+            "WHERE r.granularity = ?1 AND r.bucketStart = ?2")
+    int overwrite(RollupGranularity granularity, LocalDateTime bucketStart, long orders, double revenue, long products);
+}
@@ -1,9 +1,13 @@
 package com.ecommerce.project.Repository;
 
 import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartLineDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,9 +15,30 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
     Cart findCartByEmail(String email);
 
+    //Sellers are fetched with their eager roles and cart, so checkout does not look each one up separately
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product p " +
+            "LEFT JOIN FETCH p.category LEFT JOIN FETCH p.user s LEFT JOIN FETCH s.roles LEFT JOIN FETCH s.cart " +
+            "WHERE c.user.email = ?1")
+    Cart findCartWithItemsByEmail(String email);
+
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.id = ?2")
     Cart findCartByEmailAndCartId(String emailId, Long cartId);
 
+    //Read path for cart views: one row per line, built straight into DTOs without loading entities
+    @Query("SELECT new com.ecommerce.project.payload.CartLineDTO(c.cartId, p.productId, p.productName, " +
+            "p.description, ci.quantity, p.image, p.price, p.discount, p.specialPrice, ci.productPrice) FROM Cart c " +
+            "LEFT JOIN c.cartItems ci LEFT JOIN ci.product p WHERE c.user.email = ?1 AND c.cartId = ?2 " +
+            "ORDER BY ci.cartItemId")
+    List<CartLineDTO> findCartLines(String emailId, Long cartId);
+
+    @Query("SELECT c.cartId FROM Cart c ORDER BY c.cartId")
+    List<Long> findFirstCartIds(Pageable pageDetails);
+
+    @Query("SELECT new com.ecommerce.project.payload.CartLineDTO(c.cartId, p.productId, p.productName, " +
+            "p.description, ci.quantity, p.image, p.price, p.discount, p.specialPrice, ci.productPrice) FROM Cart c " +
+            "LEFT JOIN c.cartItems ci LEFT JOIN ci.product p WHERE c.cartId IN ?1 ORDER BY c.cartId, ci.cartItemId")
+    List<CartLineDTO> findCartLinesByCartIds(Collection<Long> cartIds);
+
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
 }
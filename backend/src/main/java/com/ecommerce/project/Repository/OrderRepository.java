@@ -1,11 +1,32 @@
 package com.ecommerce.project.Repository;
 
 import com.ecommerce.project.model.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o")
     Double getTotalRevenue();
 
+    @Query("SELECT COALESCE(MAX(o.orderId), 0) FROM Order o")
+    long findMaxOrderId();
+
+    @Query("SELECT o.orderDate, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+            "WHERE o.orderDate >= ?1 GROUP BY o.orderDate")
+    List<Object[]> summarizeByDaySince(LocalDate fromDate);
+
+    @Query("SELECT o FROM Order o JOIN SellerOrder so ON so.orderId = o.orderId WHERE so.sellerId = ?1")
+    Page<Order> findBySellerId(Long sellerId, Pageable pageDetails);
+
+    //Conditional on the current status so only one of two concurrent cancellations sees a row updated
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = ?2 WHERE o.orderId = ?1 AND o.orderStatus <> ?2")
+    int updateStatusIfChanged(Long orderId, String status);
+
 }
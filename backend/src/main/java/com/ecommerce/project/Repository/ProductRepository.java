@@ -3,12 +3,19 @@ package com.ecommerce.project.Repository;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.ProductDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
@@ -17,4 +24,39 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     Page<Product> findByProductNameLikeIgnoreCase(String keyWord, Pageable pageDetails);
 
     Page<Product> findByUser(User user, Pageable pageDetails);
+
+    boolean existsByCategoryCategoryIdAndProductName(Long categoryId, String productName);
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.description, " +
+            "p.quantity, p.image, p.price, p.discount, p.specialPrice) FROM Product p")
+    Page<ProductDTO> findAllAsDTO(Pageable pageDetails);
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.description, " +
+            "p.quantity, p.image, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.user = ?1")
+    Page<ProductDTO> findByUserAsDTO(User user, Pageable pageDetails);
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.description, " +
+            "p.quantity, p.image, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.category.categoryId = ?1 ORDER BY p.price ASC")
+    Page<ProductDTO> findByCategoryIdAsDTO(Long categoryId, Pageable pageDetails);
+
+    Slice<Product> findByProductIdGreaterThanOrderByProductIdAsc(Long productId, Pageable pageDetails);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = ?1")
+    List<Long> findProductIdsByCategoryId(Long categoryId);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN ?1")
+    List<Long> findExistingProductIds(Collection<Long> productIds);
+
+    //Rows of (image, number of products using it); images nobody references are absent
+    @Query("SELECT p.image, COUNT(p) FROM Product p WHERE p.image IN ?1 GROUP BY p.image")
+    List<Object[]> countImageReferences(Collection<String> images);
+
+    //Row locks are taken in product id order, so checkouts sharing products always queue instead of deadlocking
+    @Query(value = "SELECT product_id FROM products WHERE product_id IN (?1) ORDER BY product_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockForStockUpdate(Collection<Long> productIds);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + ?2 WHERE p.productId = ?1")
+    int releaseStock(Long productId, Integer quantity);
 }
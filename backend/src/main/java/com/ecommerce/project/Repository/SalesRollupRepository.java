@@ -0,0 +1,41 @@
+package com.ecommerce.project.Repository;
+
+import com.ecommerce.project.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    @Modifying
+    @Query("UPDATE SalesRollup r SET r.revenue = r.revenue + ?4, r.units = r.units + ?5, r.orderCount = r.orderCount + ?6 " +
+            "WHERE r.salesDate = ?1 AND r.categoryId = ?2 AND r.sellerId = ?3")
+    int increment(LocalDate salesDate, Long categoryId, Long sellerId, double revenue, long units, long orders);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup r WHERE r.salesDate >= ?1")
+    int deleteSince(LocalDate fromDate);
+
+    @Modifying
+    @Query("INSERT INTO SalesRollup (salesDate, categoryId, sellerId, revenue, units, orderCount) " +
+            "SELECT o.orderDate, COALESCE(c.categoryId, 0), COALESCE(u.userId, 0), " +
+            "SUM(oi.orderedProductPrice * oi.quantity), SUM(oi.quantity), COUNT(DISTINCT o.orderId) " +
+            "FROM OrderItem oi JOIN oi.order o JOIN oi.product p LEFT JOIN p.category c LEFT JOIN p.user u " +
+            "WHERE o.orderDate >= ?1 GROUP BY o.orderDate, COALESCE(c.categoryId, 0), COALESCE(u.userId, 0)")
+    int rebuildSince(LocalDate fromDate);
+
+    @Query("SELECT r.salesDate, 0L, SUM(r.revenue), SUM(r.units), SUM(r.orderCount) FROM SalesRollup r " +
+            "WHERE r.salesDate BETWEEN ?1 AND ?2 GROUP BY r.salesDate")
+    List<Object[]> summarizeByDay(LocalDate from, LocalDate to);
+
+    @Query("SELECT r.salesDate, r.categoryId, SUM(r.revenue), SUM(r.units), SUM(r.orderCount) FROM SalesRollup r " +
+            "WHERE r.salesDate BETWEEN ?1 AND ?2 GROUP BY r.salesDate, r.categoryId")
+    List<Object[]> summarizeByDayAndCategory(LocalDate from, LocalDate to);
+
+    @Query("SELECT r.salesDate, r.sellerId, SUM(r.revenue), SUM(r.units), SUM(r.orderCount) FROM SalesRollup r " +
+            "WHERE r.salesDate BETWEEN ?1 AND ?2 GROUP BY r.salesDate, r.sellerId")
+    List<Object[]> summarizeByDayAndSeller(LocalDate from, LocalDate to);
+}
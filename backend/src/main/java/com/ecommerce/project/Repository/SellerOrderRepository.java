@@ -0,0 +1,15 @@
+package com.ecommerce.project.Repository;
+
+import com.ecommerce.project.model.SellerOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface SellerOrderRepository extends JpaRepository<SellerOrder, Long> {
+
+    @Modifying
+    @Query("INSERT INTO SellerOrder (sellerId, orderId) " +
+            "SELECT DISTINCT p.user.userId, oi.order.orderId FROM OrderItem oi JOIN oi.product p " +
+            "WHERE p.user IS NOT NULL")
+    int backfillFromOrderItems();
+}
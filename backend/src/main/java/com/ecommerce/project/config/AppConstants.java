@@ -8,4 +8,6 @@ public class AppConstants {
     public static final String SORT_DIR = "asc";
     public static final String SORT_ORDERS_BY = "totalAmount";
     public static final String SORT_USERS_BY = "userId";
+    public static final String ORDER_STATUS_ACCEPTED = "Accepted!!";
+    public static final String ORDER_STATUS_CANCELLED = "Cancelled";
 }
@@ -1,16 +0,0 @@
-package com.ecommerce.project.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-@Configuration
-public class WebMvcConfig implements WebMvcConfigurer {
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Use absolute path and note the trailing slash
-        registry.addResourceHandler("/images/**")
-                .addResourceLocations("file:E:/Java Projects/Ecommerce/backend/images/");
-    }
-}
@@ -1,14 +1,19 @@
 package com.ecommerce.project.controller;
 
 import com.ecommerce.project.payload.AnalyticsResponse;
+import com.ecommerce.project.payload.SalesSeriesResponse;
 import com.ecommerce.project.service.AnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api")
 public class AnalyticsController {
@@ -21,4 +26,16 @@ public class AnalyticsController {
         AnalyticsResponse response = analyticsService.getAnalytics();
         return new ResponseEntity<AnalyticsResponse>(response, HttpStatus.OK);
     }
+
+    @GetMapping("/admin/app/analytics/sales")
+    public ResponseEntity<SalesSeriesResponse> getSalesSeries(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "interval", defaultValue = "day", required = false) String interval,
+            @RequestParam(name = "groupBy", defaultValue = "none", required = false) String groupBy){
+        LocalDate toDate = to != null ? to : LocalDate.now();
+        LocalDate fromDate = from != null ? from : toDate.minusDays(29);
+        SalesSeriesResponse response = analyticsService.getSalesSeries(fromDate, toDate, interval, groupBy);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
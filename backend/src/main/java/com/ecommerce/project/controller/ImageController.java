@@ -0,0 +1,38 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.service.ImageServer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Tag(name = "Images", description = "Product image files")
+@RestController
+public class ImageController {
+
+    @Autowired
+    private ImageServer imageServer;
+
+    @Operation(summary = "Get image", description = "Serve a product image or rendition, with byte range support")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Image returned"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+            @ApiResponse(responseCode = "404", description = "Image not found"),
+            @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    })
+    @RequestMapping(value = "/images/{fileName:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getImage(@Parameter(description = "Image file name") @PathVariable String fileName,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        imageServer.serve(fileName, request, response);
+    }
+}
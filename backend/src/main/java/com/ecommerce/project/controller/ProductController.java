@@ -4,17 +4,24 @@ import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.service.ProductPageCache;
 import com.ecommerce.project.service.ProductService;
+import com.ecommerce.project.util.CatalogVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -27,6 +34,12 @@ public class ProductController {
     @Autowired
     ProductService productService;
 
+    @Autowired
+    ProductPageCache productPageCache;
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
     @Operation(summary = "Add new product", description = "Create a new product in the specified category (Admin only)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Product created successfully"),
@@ -40,21 +53,32 @@ public class ProductController {
         return new ResponseEntity<>(savedproductDTO, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Get all products", description = "Retrieve paginated list of all products with sorting options")
+    @Operation(summary = "Get all products", description = "Retrieve paginated list of all products with sorting options. Pass a cursor to page by keyset instead of page number")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductResponse.class)))
     })
     @GetMapping("/public/products")
-    public ResponseEntity<ProductResponse>getAllProducts(
+    public ResponseEntity<?>getAllProducts(
             @RequestParam(name = "keyword", required = false) String keyword,
             @RequestParam(name = "category", required = false) String category,
             @Parameter(description = "Page number (0-based)") @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @Parameter(description = "Number of items per page") @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @Parameter(description = "Field to sort by") @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-            @Parameter(description = "Sort order (asc/desc)") @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+            @Parameter(description = "Sort order (asc/desc)") @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @Parameter(description = "Continuation token for cursor pagination; send it empty for the first page") @RequestParam(name = "cursor", required = false) String cursor,
+            WebRequest webRequest
     ){
-        ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder,keyword, category);
-        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        if(webRequest.checkNotModified(catalogVersion.productsEtag(), catalogVersion.lastModified())){
+            return null;
+        }
+        if(cursor!=null){
+            ProductResponse productResponse = productService.getAllProductsByCursor(cursor, pageSize, sortBy, sortOrder, keyword, category);
+            return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        }
+        byte[] productResponse = productPageCache.getPage(pageNumber, pageSize, sortBy, sortOrder, keyword, category,
+                () -> productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(productResponse);
     }
 
     @Operation(summary = "Get products by category", description = "Retrieve paginated products filtered by category")
@@ -67,11 +91,28 @@ public class ProductController {
             @Parameter(description = "Page number (0-based)") @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @Parameter(description = "Number of items per page") @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @Parameter(description = "Field to sort by") @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-            @Parameter(description = "Sort order (asc/desc)") @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder){
+            @Parameter(description = "Sort order (asc/desc)") @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            WebRequest webRequest){
+        if(webRequest.checkNotModified(catalogVersion.productsEtag(), catalogVersion.lastModified())){
+            return null;
+        }
         ProductResponse productResponse = productService.searchByCategory(categoryId,pageNumber, pageSize, sortBy, sortOrder);
         return new ResponseEntity<>(productResponse, HttpStatus.OK);
     }
 
+    @Operation(summary = "Full-text product search", description = "Search product names and descriptions by word or word prefix, ranked by relevance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching products retrieved successfully")
+    })
+    @GetMapping("/public/products/search")
+    public ResponseEntity<ProductResponse> searchProducts(
+            @Parameter(description = "Search text") @RequestParam(name = "query") String query,
+            @Parameter(description = "Page number (0-based)") @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
+            @Parameter(description = "Number of items per page") @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize){
+        ProductResponse productResponse = productService.searchProducts(query, pageNumber, pageSize);
+        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+    }
+
     @Operation(summary = "Search products by keyword", description = "Search products using keyword in name or description")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "302", description = "Products found matching keyword")
@@ -123,6 +164,23 @@ public class ProductController {
         return new ResponseEntity<>(updatedProduct, HttpStatus.OK);
     }
 
+    @Operation(summary = "Stream product image", description = "Upload a product image as the raw request body, without multipart buffering")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product image updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Unsupported image type"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "413", description = "Image exceeds the upload size limit"),
+            @ApiResponse(responseCode = "503", description = "Too many uploads in progress")
+    })
+    @PutMapping({"/admin/products/{productId}/image/stream", "/seller/products/{productId}/image/stream"})
+    public ResponseEntity<ProductDTO> streamProductImage(
+            @Parameter(description = "Product ID") @PathVariable Long productId,
+            HttpServletRequest request) throws IOException {
+        ProductDTO updatedProduct = productService.updateProductImage(productId, request.getInputStream(),
+                request.getContentType(), request.getContentLengthLong());
+        return new ResponseEntity<>(updatedProduct, HttpStatus.OK);
+    }
+
     @GetMapping("/admin/products")
     public ResponseEntity<ProductResponse> getAllProductsForAdmin(
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
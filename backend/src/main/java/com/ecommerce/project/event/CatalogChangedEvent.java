@@ -0,0 +1,7 @@
+package com.ecommerce.project.event;
+
+/**
+ * Published after any product or category write that can change what the public catalog endpoints return.
+ */
+public record CatalogChangedEvent(String reason) {
+}
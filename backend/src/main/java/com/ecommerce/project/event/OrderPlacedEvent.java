@@ -0,0 +1,10 @@
+package com.ecommerce.project.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OrderPlacedEvent(Long orderId, double totalAmount, LocalDateTime placedAt, List<Line> lines) {
+
+    public record Line(Long categoryId, Long sellerId, int quantity, double amount) {
+    }
+}
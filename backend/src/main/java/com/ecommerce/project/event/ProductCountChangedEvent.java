@@ -0,0 +1,4 @@
+package com.ecommerce.project.event;
+
+public record ProductCountChangedEvent(long delta) {
+}
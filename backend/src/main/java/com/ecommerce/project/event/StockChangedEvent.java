@@ -0,0 +1,6 @@
+package com.ecommerce.project.event;
+
+import java.util.Set;
+
+public record StockChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.project.exceptions;
+
+public class UploadCapacityExceededException extends RuntimeException {
+
+    public UploadCapacityExceededException(String message) {
+        super(message);
+    }
+}
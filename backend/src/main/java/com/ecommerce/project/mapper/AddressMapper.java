@@ -0,0 +1,10 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.payload.AddressDTO;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface AddressMapper {
+    AddressDTO toDTO(Address address);
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Maps the cart header only; callers fill {@link CartDTO#getProducts()} from the cart items
+ * and {@link CartDTO#getTotalPrice()} through {@link com.ecommerce.project.service.CartPricing}.
+ */
+@Mapper(componentModel = "spring")
+public interface CartMapper {
+    @Mapping(target = "products", ignore = true)
+    @Mapping(target = "totalPrice", ignore = true)
+    CartDTO toDTO(Cart cart);
+}
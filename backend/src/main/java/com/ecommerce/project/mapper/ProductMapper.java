@@ -0,0 +1,17 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ProductMapper {
+    //Image variants are filled in from the image store by the callers that serve them
+    @Mapping(target = "images", ignore = true)
+    ProductDTO toDTO(Product product);
+
+    List<ProductDTO> toDTOs(List<Product> products);
+}
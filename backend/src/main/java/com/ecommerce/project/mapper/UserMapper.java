@@ -0,0 +1,13 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.UserDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = CartMapper.class)
+public interface UserMapper {
+    @Mapping(target = "username", source = "userName")
+    @Mapping(target = "address", ignore = true)
+    UserDTO toDTO(User user);
+}
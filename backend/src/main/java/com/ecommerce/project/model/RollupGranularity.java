@@ -0,0 +1,7 @@
+package com.ecommerce.project.model;
+
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    TOTAL
+}
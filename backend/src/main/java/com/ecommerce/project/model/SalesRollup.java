@@ -0,0 +1,38 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Order items aggregated per day, category and seller. Products without a category or seller
+ * are recorded under id 0 so every row has a complete key.
+ */
+@Entity
+@Table(name = "sales_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"sales_date", "category_id", "seller_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_rollup_seq")
+    @SequenceGenerator(name = "sales_rollup_seq", sequenceName = "sales_rollup_seq", allocationSize = 50)
+    private Long salesRollupId;
+
+    @Column(nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    private double revenue;
+    private long units;
+    private long orderCount;
+}
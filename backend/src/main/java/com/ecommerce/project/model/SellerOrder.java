@@ -0,0 +1,35 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row per (seller, order) pair, written when the order is placed,
+ * so a seller's orders can be paged without scanning every order in the store.
+ */
+@Entity
+@Table(name = "seller_orders",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"seller_id", "order_id"}),
+        indexes = @Index(name = "idx_seller_orders_seller", columnList = "seller_id, order_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seller_order_seq")
+    @SequenceGenerator(name = "seller_order_seq", sequenceName = "seller_order_seq", allocationSize = 50)
+    private Long sellerOrderId;
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    public SellerOrder(Long sellerId, Long orderId) {
+        this.sellerId = sellerId;
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One row of the cart read projection in CartRepository; product fields are null for an empty cart
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineDTO {
+    private Long cartId;
+    private Long productId;
+    private String productName;
+    private String description;
+    private Integer quantity;
+    private String image;
+    private Double price;
+    private Double discount;
+    private Double specialPrice;
+    private Double productPrice;
+}
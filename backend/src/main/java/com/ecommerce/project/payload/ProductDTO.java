@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,4 +18,12 @@ public class ProductDTO {
     private double price;
     private double discount;
     private double specialPrice;
+    //Rendition URLs keyed by width; empty until the renditions of the current image exist
+    private Map<Integer, String> images = Map.of();
+
+    //Used by the JPQL constructor projections in ProductRepository
+    public ProductDTO(Long productId, String productName, String description, Integer quantity, String image,
+                      double price, double discount, double specialPrice) {
+        this(productId, productName, description, quantity, image, price, discount, specialPrice, Map.of());
+    }
 }
@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSeriesPoint {
+    private LocalDate bucketStart;
+    private Long groupId;
+    private String groupName;
+    private double revenue;
+    private long units;
+    private long orders;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSeriesResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private String interval;
+    private String groupBy;
+    private List<SalesSeriesPoint> points;
+}
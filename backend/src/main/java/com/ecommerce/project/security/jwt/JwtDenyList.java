@@ -0,0 +1,33 @@
+package com.ecommerce.project.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revoked token ids (jti) kept only until the token would have expired anyway.
+ * Not size bounded: dropping an entry early would make a revoked token valid again.
+ */
+@Component
+public class JwtDenyList {
+
+    private final Cache<String, Instant> deniedTokenIds = Caffeine.newBuilder()
+            .expireAfter(Expiry.creating((String tokenId, Instant expiresAt) -> Duration.between(Instant.now(), expiresAt)))
+            .build();
+
+    public void deny(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return;
+        }
+        deniedTokenIds.put(claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    public boolean isDenied(Claims claims) {
+        return claims.getId() != null && deniedTokenIds.getIfPresent(claims.getId()) != null;
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.project.security.service;
 
 import com.ecommerce.project.model.User;
+import com.ecommerce.project.security.jwt.JwtUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.jsonwebtoken.Claims;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
@@ -49,6 +51,28 @@ public class UserDetailsImpl implements UserDetails {
         );
     }
 
+    /**
+     * Rebuilds the principal from the claims written by {@link JwtUtils#generateTokenFromUserDetails},
+     * or returns null for tokens that only carry a subject.
+     */
+    public static UserDetailsImpl build(Claims claims){
+        Number userId = claims.get(JwtUtils.USER_ID_CLAIM, Number.class);
+        List<?> roles = claims.get(JwtUtils.ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+
+        List<GrantedAuthority>authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(
+                userId.longValue(), claims.getSubject(),
+                claims.get(JwtUtils.EMAIL_CLAIM, String.class), null,
+                authorities
+        );
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
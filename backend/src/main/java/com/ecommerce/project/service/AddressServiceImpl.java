@@ -3,6 +3,7 @@ package com.ecommerce.project.service;
 import com.ecommerce.project.Repository.AddressRepository;
 import com.ecommerce.project.Repository.UserRepository;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.AddressMapper;
 import com.ecommerce.project.model.Address;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.AddressDTO;
@@ -17,6 +18,9 @@ public class AddressServiceImpl implements AddressService {
     @Autowired
     ModelMapper modelMapper;
 
+    @Autowired
+    private AddressMapper addressMapper;
+
     @Autowired
     AddressRepository addressRepository;
 
@@ -33,27 +37,26 @@ public class AddressServiceImpl implements AddressService {
         address.setUser(user);
         Address savedAddress = addressRepository.save(address);
 
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return addressMapper.toDTO(savedAddress);
     }
 
     @Override
     public List<AddressDTO> getAddresses() {
         List<Address>addresses = addressRepository.findAll();
-        return addresses.stream().map(address -> modelMapper.
-                map(address, AddressDTO.class)).toList();
+        return addresses.stream().map(address -> addressMapper.toDTO(address)).toList();
     }
 
     @Override
     public AddressDTO getAddressById(Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(()->new ResourceNotFoundException("Address","addressId", addressId));
-        return modelMapper.map(address, AddressDTO.class);
+        return addressMapper.toDTO(address);
     }
 
     @Override
     public List<AddressDTO> getUserAddresses(User user) {
         List<Address>addresses = user.getAddresses();
-        return addresses.stream().map(address -> modelMapper.map(address, AddressDTO.class))
+        return addresses.stream().map(address -> addressMapper.toDTO(address))
                 .toList();
     }
 
@@ -76,7 +79,7 @@ public class AddressServiceImpl implements AddressService {
         user.getAddresses().add(updatedAddress);
         userRepository.save(user);
 
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return addressMapper.toDTO(updatedAddress);
     }
 
     @Override
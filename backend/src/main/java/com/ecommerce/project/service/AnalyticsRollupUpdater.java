@@ -0,0 +1,297 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.AnalyticsRollupRepository;
+import com.ecommerce.project.Repository.OrderRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.Repository.SalesRollupRepository;
+import com.ecommerce.project.event.OrderPlacedEvent;
+import com.ecommerce.project.event.ProductCountChangedEvent;
+import com.ecommerce.project.model.AnalyticsRollup;
+import com.ecommerce.project.model.RollupGranularity;
+import com.ecommerce.project.model.SalesRollup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Keeps the analytics rollups in step with the base tables.
+ * Orders and product changes committed by requests are only queued; a single background thread sums them into
+ * per-row deltas and applies those, so a burst of orders costs one update of each touched row (notably the shared
+ * TOTAL row) in one transaction rather than several round trips per order on the request thread.
+ * A periodic reconciliation, run on the same thread, recomputes the totals and the recent daily buckets from one
+ * snapshot of the base tables; order events up to the newest order that snapshot saw are not added to those rows
+ * again. Hourly buckets are only fed by events, since orders carry no time of day to rebuild them from.
+ */
+@Component
+public class AnalyticsRollupUpdater {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsRollupUpdater.class);
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.reconcile.days:2}")
+    private int reconcileDays;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate snapshotTemplate;
+    private ThreadPoolExecutor executor;
+
+    //committed changes not yet written, guarded by this
+    private List<OrderPlacedEvent> pendingOrders = new ArrayList<>();
+    private long pendingProducts;
+    private boolean applyQueued;
+
+    //what the last reconciliation already counted
+    private volatile Reconciled reconciled = new Reconciled(0L, LocalDate.MAX);
+
+    private record Reconciled(long maxOrderId, LocalDate fromDate) {
+    }
+
+    private record RollupKey(RollupGranularity granularity, LocalDateTime bucketStart) {
+    }
+
+    private record SalesKey(LocalDate salesDate, Long categoryId, Long sellerId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        //pending changes are coalesced, so only an apply and the odd reconcile are ever queued
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "analytics-rollup-updater");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (this) {
+            pendingOrders.add(event);
+        }
+        queueApply();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductCountChanged(ProductCountChangedEvent event) {
+        synchronized (this) {
+            pendingProducts += event.delta();
+        }
+        queueApply();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (rollupRepository.findByGranularityAndBucketStart(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET).isEmpty()) {
+            reconcileSince(LocalDate.EPOCH);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.reconcile.interval-ms:900000}",
+            initialDelayString = "${analytics.reconcile.interval-ms:900000}")
+    public void reconcile() {
+        reconcileSince(LocalDate.now().minusDays(reconcileDays - 1L));
+    }
+
+    /**
+     * Recomputes the TOTAL row, and every DAY bucket and sales rollup from {@code fromDate} on, from the base tables.
+     * Runs on the updater thread and returns once the rebuild and the changes pending behind it are written.
+     */
+    public void reconcileSince(LocalDate fromDate) {
+        CompletableFuture.runAsync(() -> {
+            rebuildSince(fromDate);
+            applyPending();
+        }, executor).join();
+    }
+
+    /**
+     * Writes the changes pending so far; completes once they are in the rollups.
+     */
+    CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::applyPending, executor);
+    }
+
+    private void rebuildSince(LocalDate fromDate) {
+        long started = System.currentTimeMillis();
+        //one snapshot for every read, so the newest order it saw tells which order events it already counts
+        Reconciled snapshot = snapshotTemplate.execute(status -> {
+            long maxOrderId = orderRepository.findMaxOrderId();
+            synchronized (this) {
+                //these product changes committed before the snapshot, which counts them
+                pendingProducts = 0;
+            }
+            long productCount = productRepository.count();
+            long orderCount = orderRepository.count();
+            Double revenue = orderRepository.getTotalRevenue();
+            set(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET, orderCount, revenue != null ? revenue : 0, productCount);
+
+            for (Object[] day : orderRepository.summarizeByDaySince(fromDate)) {
+                LocalDate orderDate = (LocalDate) day[0];
+                set(RollupGranularity.DAY, orderDate.atStartOfDay(), ((Number) day[1]).longValue(),
+                        ((Number) day[2]).doubleValue(), 0);
+            }
+
+            salesRollupRepository.deleteSince(fromDate);
+            salesRollupRepository.rebuildSince(fromDate);
+            return new Reconciled(maxOrderId, fromDate);
+        });
+        reconciled = snapshot;
+        logger.info("Reconciled analytics rollups since {} through order {} in {} ms",
+                fromDate, snapshot.maxOrderId(), System.currentTimeMillis() - started);
+    }
+
+    private void queueApply() {
+        synchronized (this) {
+            if (applyQueued) {
+                return;
+            }
+            applyQueued = true;
+        }
+        executor.execute(this::applyPending);
+    }
+
+    private void applyPending() {
+        List<OrderPlacedEvent> orders;
+        long products;
+        synchronized (this) {
+            orders = pendingOrders;
+            products = pendingProducts;
+            pendingOrders = new ArrayList<>();
+            pendingProducts = 0;
+            applyQueued = false;
+        }
+
+        Map<RollupKey, AnalyticsRollup> rollups = new HashMap<>();
+        Map<SalesKey, SalesRollup> sales = new HashMap<>();
+        if (products != 0) {
+            add(rollups, RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET, 0, 0, products);
+        }
+        orders.forEach(order -> collect(order, rollups, sales));
+        if (rollups.isEmpty() && sales.isEmpty()) {
+            return;
+        }
+
+        try {
+            try {
+                apply(rollups, sales);
+            } catch (DataIntegrityViolationException e) {
+                // Another writer created one of the rows first, the rolled back deltas now find theirs
+                apply(rollups, sales);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not apply {} analytics rollup deltas, leaving them to reconciliation",
+                    rollups.size() + sales.size(), e);
+        }
+    }
+
+    private void collect(OrderPlacedEvent event, Map<RollupKey, AnalyticsRollup> rollups, Map<SalesKey, SalesRollup> sales) {
+        LocalDateTime placedAt = event.placedAt();
+        Reconciled counted = reconciled;
+        boolean inTotal = event.orderId() != null && event.orderId() <= counted.maxOrderId();
+        boolean inDay = inTotal && !placedAt.toLocalDate().isBefore(counted.fromDate());
+
+        add(rollups, RollupGranularity.HOUR, placedAt.truncatedTo(ChronoUnit.HOURS), 1, event.totalAmount(), 0);
+        if (!inTotal) {
+            add(rollups, RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET, 1, event.totalAmount(), 0);
+        }
+        if (inDay) {
+            return;
+        }
+        add(rollups, RollupGranularity.DAY, placedAt.truncatedTo(ChronoUnit.DAYS), 1, event.totalAmount(), 0);
+
+        Set<SalesKey> orderKeys = new HashSet<>();
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            SalesKey key = new SalesKey(placedAt.toLocalDate(),
+                    line.categoryId() != null ? line.categoryId() : 0L, line.sellerId() != null ? line.sellerId() : 0L);
+            SalesRollup rollup = sales.computeIfAbsent(key,
+                    k -> new SalesRollup(null, k.salesDate(), k.categoryId(), k.sellerId(), 0, 0, 0));
+            rollup.setRevenue(rollup.getRevenue() + line.amount());
+            rollup.setUnits(rollup.getUnits() + line.quantity());
+            if (orderKeys.add(key)) {
+                rollup.setOrderCount(rollup.getOrderCount() + 1);
+            }
+        }
+    }
+
+    private void add(Map<RollupKey, AnalyticsRollup> rollups, RollupGranularity granularity, LocalDateTime bucketStart,
+                     long orders, double revenue, long products) {
+        AnalyticsRollup delta = rollups.computeIfAbsent(new RollupKey(granularity, bucketStart),
+                key -> new AnalyticsRollup(null, granularity, bucketStart, 0, 0, 0));
+        delta.setOrderCount(delta.getOrderCount() + orders);
+        delta.setRevenue(delta.getRevenue() + revenue);
+        delta.setProductCount(delta.getProductCount() + products);
+    }
+
+    private void apply(Map<RollupKey, AnalyticsRollup> rollups, Map<SalesKey, SalesRollup> sales) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (AnalyticsRollup delta : rollups.values()) {
+                int updated = rollupRepository.increment(delta.getGranularity(), delta.getBucketStart(),
+                        delta.getOrderCount(), delta.getRevenue(), delta.getProductCount());
+                if (updated == 0) {
+                    rollupRepository.saveAndFlush(new AnalyticsRollup(null, delta.getGranularity(), delta.getBucketStart(),
+                            delta.getOrderCount(), delta.getRevenue(), delta.getProductCount()));
+                }
+            }
+            for (SalesRollup delta : sales.values()) {
+                int updated = salesRollupRepository.increment(delta.getSalesDate(), delta.getCategoryId(),
+                        delta.getSellerId(), delta.getRevenue(), delta.getUnits(), delta.getOrderCount());
+                if (updated == 0) {
+                    salesRollupRepository.saveAndFlush(new SalesRollup(null, delta.getSalesDate(), delta.getCategoryId(),
+                            delta.getSellerId(), delta.getRevenue(), delta.getUnits(), delta.getOrderCount()));
+                }
+            }
+        });
+    }
+
+    //Runs inside the reconciliation's transaction
+    private void set(RollupGranularity granularity, LocalDateTime bucketStart, long orders, double revenue, long products) {
+        if (rollupRepository.overwrite(granularity, bucketStart, orders, revenue, products) == 0) {
+            rollupRepository.saveAndFlush(new AnalyticsRollup(null, granularity, bucketStart, orders, revenue, products));
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.payload.AnalyticsResponse;
+import com.ecommerce.project.payload.SalesSeriesResponse;
+
+import java.time.LocalDate;
 
 public interface AnalyticsService {
 
     AnalyticsResponse getAnalytics();
+
+    SalesSeriesResponse getSalesSeries(LocalDate from, LocalDate to, String interval, String groupBy);
 }
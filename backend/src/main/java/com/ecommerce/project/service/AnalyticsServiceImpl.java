@@ -1,32 +1,129 @@
 package com.ecommerce.project.service;
 
-import com.ecommerce.project.Repository.OrderRepository;
-import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.Repository.AnalyticsRollupRepository;
+import com.ecommerce.project.Repository.SalesRollupRepository;
+import com.ecommerce.project.Repository.UserRepository;
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.model.AnalyticsRollup;
+import com.ecommerce.project.model.RollupGranularity;
 import com.ecommerce.project.payload.AnalyticsResponse;
+import com.ecommerce.project.payload.SalesSeriesPoint;
+import com.ecommerce.project.payload.SalesSeriesResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Collectors;
+
 @Service
 public class AnalyticsServiceImpl implements AnalyticsService{
 
     @Autowired
-    private ProductRepository productRepository;
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private CategoryCache categoryCache;
 
     @Autowired
-    private OrderRepository orderRepository;
+    private UserRepository userRepository;
+
+    @Autowired
+    private AnalyticsRollupUpdater rollupUpdater;
 
     @Override
     public AnalyticsResponse getAnalytics() {
         AnalyticsResponse analyticsResponse = new AnalyticsResponse();
 
-        long productCount = productRepository.count();
-        long totalOrders = orderRepository.count();
-        Double totalRevenue = orderRepository.getTotalRevenue();
+        AnalyticsRollup totals = rollupRepository
+                .findByGranularityAndBucketStart(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET)
+                .orElse(null);
+        if (totals == null) {
+            rollupUpdater.initialize();
+            totals = rollupRepository
+                    .findByGranularityAndBucketStart(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET)
+                    .orElseGet(AnalyticsRollup::new);
+        }
 
-        analyticsResponse.setProductCount(String.valueOf(productCount));
-        analyticsResponse.setTotalOrders(String.valueOf(totalOrders));
-        analyticsResponse.setTotalRevenue(String.valueOf(totalRevenue!=null ? totalRevenue : 0));
+        analyticsResponse.setProductCount(String.valueOf(totals.getProductCount()));
+        analyticsResponse.setTotalOrders(String.valueOf(totals.getOrderCount()));
+        analyticsResponse.setTotalRevenue(String.valueOf(totals.getRevenue()));
 
         return analyticsResponse;
     }
+
+    /**
+     * Buckets the daily sales rollups into days, ISO weeks or months, optionally split by category or seller.
+     * Per-group order counts count an order once in every group it bought from.
+     */
+    @Override
+    public SalesSeriesResponse getSalesSeries(LocalDate from, LocalDate to, String interval, String groupBy) {
+        if (from.isAfter(to)) {
+            throw new ApiException("from must not be after to");
+        }
+
+        List<Object[]> rows = switch (groupBy.toLowerCase()) {
+            case "none" -> salesRollupRepository.summarizeByDay(from, to);
+            case "category" -> salesRollupRepository.summarizeByDayAndCategory(from, to);
+            case "seller" -> salesRollupRepository.summarizeByDayAndSeller(from, to);
+            default -> throw new ApiException("Unsupported groupBy: " + groupBy + ", expected none, category or seller");
+        };
+
+        Map<LocalDate, Map<Long, SalesSeriesPoint>> buckets = new TreeMap<>();
+        for (Object[] row : rows) {
+            LocalDate bucketStart = bucketStart((LocalDate) row[0], interval);
+            Long groupId = ((Number) row[1]).longValue();
+            SalesSeriesPoint point = buckets.computeIfAbsent(bucketStart, key -> new TreeMap<>())
+                    .computeIfAbsent(groupId, key -> new SalesSeriesPoint(bucketStart, key, null, 0, 0, 0));
+            point.setRevenue(point.getRevenue() + ((Number) row[2]).doubleValue());
+            point.setUnits(point.getUnits() + ((Number) row[3]).longValue());
+            point.setOrders(point.getOrders() + ((Number) row[4]).longValue());
+        }
+
+        if (groupBy.equalsIgnoreCase("none")) {
+            // Orders spanning several categories or sellers are counted once here, from the daily order rollups
+            buckets.values().forEach(points -> points.values().forEach(point -> point.setOrders(0)));
+            rollupRepository.findByGranularityAndBucketStartBetween(RollupGranularity.DAY,
+                    from.atStartOfDay(), to.atStartOfDay()).forEach(day -> {
+                LocalDate bucketStart = bucketStart(day.getBucketStart().toLocalDate(), interval);
+                SalesSeriesPoint point = buckets.computeIfAbsent(bucketStart, key -> new TreeMap<>())
+                        .computeIfAbsent(0L, key -> new SalesSeriesPoint(bucketStart, key, null, 0, 0, 0));
+                point.setOrders(point.getOrders() + day.getOrderCount());
+            });
+        }
+
+        List<SalesSeriesPoint> points = buckets.values().stream()
+                .flatMap(groups -> groups.values().stream())
+                .toList();
+        Map<Long, String> groupNames = groupNames(groupBy, points);
+        points.forEach(point -> point.setGroupName(groupNames.get(point.getGroupId())));
+
+        return new SalesSeriesResponse(from, to, interval, groupBy, points);
+    }
+
+    private LocalDate bucketStart(LocalDate day, String interval) {
+        return switch (interval.toLowerCase()) {
+            case "day" -> day;
+            case "week" -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> day.withDayOfMonth(1);
+            default -> throw new ApiException("Unsupported interval: " + interval + ", expected day, week or month");
+        };
+    }
+
+    private Map<Long, String> groupNames(String groupBy, List<SalesSeriesPoint> points) {
+        Set<Long> ids = points.stream().map(SalesSeriesPoint::getGroupId).collect(Collectors.toSet());
+        Map<Long, String> names = new HashMap<>();
+        if (groupBy.equalsIgnoreCase("category")) {
+            ids.forEach(id -> categoryCache.findById(id)
+                    .ifPresent(category -> names.put(id, category.getCategoryName())));
+        } else if (groupBy.equalsIgnoreCase("seller")) {
+            userRepository.findAllById(ids).forEach(user -> names.put(user.getUserId(), user.getUserName()));
+        }
+        return names;
+    }
 }
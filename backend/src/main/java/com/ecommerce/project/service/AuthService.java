@@ -6,6 +6,7 @@ import com.ecommerce.project.security.request.LoginRequest;
 import com.ecommerce.project.security.request.SignupRequest;
 import com.ecommerce.project.security.response.MessageResponse;
 import com.ecommerce.project.security.response.UserInfoResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
@@ -18,7 +19,7 @@ public interface AuthService {
 
     UserInfoResponse getCurrentUserDetails(Authentication authentication);
 
-    ResponseCookie logoutUser();
+    ResponseCookie logoutUser(HttpServletRequest request);
 
     UserResponse getAllSellers(Pageable pageable);
 }
@@ -2,19 +2,22 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.Repository.RoleRepository;
 import com.ecommerce.project.Repository.UserRepository;
+import com.ecommerce.project.mapper.UserMapper;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.AuthenticationResult;
 import com.ecommerce.project.payload.UserDTO;
 import com.ecommerce.project.payload.UserResponse;
+import com.ecommerce.project.security.jwt.JwtDenyList;
 import com.ecommerce.project.security.jwt.JwtUtils;
 import com.ecommerce.project.security.request.LoginRequest;
 import com.ecommerce.project.security.request.SignupRequest;
 import com.ecommerce.project.security.response.MessageResponse;
 import com.ecommerce.project.security.response.UserInfoResponse;
 import com.ecommerce.project.security.service.UserDetailsImpl;
-import org.modelmapper.ModelMapper;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -40,6 +43,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private JwtDenyList jwtDenyList;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -50,7 +56,7 @@ public class AuthServiceImpl implements AuthService {
     PasswordEncoder encoder;
 
     @Autowired
-    ModelMapper modelMapper;
+    private UserMapper userMapper;
 
     @Override
     public AuthenticationResult login(LoginRequest loginRequest) {
@@ -64,7 +70,7 @@ public class AuthServiceImpl implements AuthService {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
         ResponseCookie jwtCookie = jwtUtils.generateJwtCookie(userDetails);
-        String jwtToken = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
+        String jwtToken = jwtUtils.generateTokenFromUserDetails(userDetails);
 
         List<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
@@ -138,7 +144,15 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    public ResponseCookie logoutUser() {
+    public ResponseCookie logoutUser(HttpServletRequest request) {
+        String jwt = jwtUtils.getJwtFromCookies(request);
+        if (jwt == null) {
+            jwt = jwtUtils.getJwtFromHeader(request);
+        }
+        Claims claims = jwt != null ? jwtUtils.parseVerifiedClaims(jwt) : null;
+        if (claims != null) {
+            jwtDenyList.deny(claims);
+        }
         return jwtUtils.getCleanJwtCookie();
     }
 
@@ -147,7 +161,7 @@ public class AuthServiceImpl implements AuthService {
         Page<User> allUsers = userRepository.findByRoleName(AppRole.ROLE_SELLER, pageable);
         List<UserDTO> userDtos = allUsers.getContent()
                 .stream()
-                .map(p -> modelMapper.map(p, UserDTO.class))
+                .map(p -> userMapper.toDTO(p))
                 .collect(Collectors.toList());
 
         UserResponse response = new UserResponse();
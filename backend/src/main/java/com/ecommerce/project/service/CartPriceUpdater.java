@@ -0,0 +1,135 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.event.ProductPriceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Carries a product's new special price into the carts that hold it, off the admin request.
+ * Carts are walked in cart id order in batches; each batch is one transaction with a set-based statement
+ * repricing the product's lines in that cart id range, after which those carts' totals are recomputed on read.
+ * The price is read from {@code products} when the batch runs, so a later edit queued behind an earlier one
+ * finds nothing left to change. Repriced carts are flushed out of the {@link CartWriteBehindStore} after each batch,
+ * so the next quantity change reloads their lines at the new price. Completed runs are timed as
+ * {@code cart.price.propagation}.
+ */
+@Component
+public class CartPriceUpdater {
+    private static final Logger logger = LoggerFactory.getLogger(CartPriceUpdater.class);
+
+    private static final String STALE_CARTS = "SELECT ci.cart_id FROM cart_items ci JOIN products p ON p.product_id = ci.product_id " +
+            "WHERE ci.product_id = ? AND ci.product_price <> p.special_price AND ci.cart_id > ? ORDER BY ci.cart_id LIMIT ?";
+    private static final String REPRICE_LINES = "UPDATE cart_items SET product_price = " +
+            "(SELECT p.special_price FROM products p WHERE p.product_id = ?) WHERE product_id = ? AND cart_id > ? AND cart_id <= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${cart.price-propagation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cart.price-propagation.queue:1000}")
+    private int queueCapacity;
+
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor executor;
+    private Timer timer;
+    private Counter cartsRepriced;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "cart-price-updater");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        meterRegistry.ifAvailable(registry -> {
+            timer = Timer.builder("cart.price.propagation").register(registry);
+            cartsRepriced = Counter.builder("cart.price.propagation.carts").register(registry);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductPriceChanged(ProductPriceChangedEvent event) {
+        submit(event.productId());
+    }
+
+    /**
+     * Queues propagation of the product's current price; completes with the number of carts repriced.
+     */
+    public CompletableFuture<Integer> submit(Long productId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return propagate(productId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not propagate the price of product {} to carts", productId, e);
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    int propagate(Long productId) {
+        long started = System.nanoTime();
+        int carts = 0;
+        long afterCartId = 0;
+        while (true) {
+            List<Long> cartIds = jdbcTemplate.queryForList(STALE_CARTS, Long.class, productId, afterCartId, batchSize);
+            if (cartIds.isEmpty()) {
+                break;
+            }
+            long fromCartId = afterCartId;
+            long toCartId = cartIds.get(cartIds.size() - 1);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(REPRICE_LINES, productId, productId, fromCartId, toCartId);
+                cartPricing.linesChanged(cartIds);
+            });
+            //cached carts still hold the old unit prices
+            cartIds.forEach(cartWriteBehindStore::flushCart);
+            carts += cartIds.size();
+            afterCartId = toCartId;
+        }
+        if (timer != null) {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            cartsRepriced.increment(carts);
+        }
+        logger.debug("Repriced product {} in {} carts", productId, carts);
+        return carts;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.CartItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cart totals derived from the cart lines instead of a stored header column.
+ * Line prices are converted to whole cents once and the total is a long multiply-add over primitive arrays,
+ * so there is no rounding drift and the loop stays simple enough for the JIT to unroll and vectorize.
+ * Totals are cached per cart next to an in-process version that every line mutation bumps after commit;
+ * readers take the version before loading the lines and a total is only stored while the cart is still at that
+ * version, so a total computed from lines that changed meanwhile is never served.
+ * Versions are drawn from one counter and share the bounded cache with the totals: a cart evicted from it gets
+ * a fresh, higher version on its next read, so nothing computed before the eviction can match again.
+ */
+@Component
+public class CartPricing {
+
+    private static final long NO_TOTAL = Long.MIN_VALUE;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${cart.pricing.cache-size:10000}")
+    private long cacheSize;
+
+    private record Entry(long version, long cents) {
+    }
+
+    private final AtomicLong clock = new AtomicLong();
+    private Cache<Long, Entry> carts;
+
+    @PostConstruct
+    public void init() {
+        carts = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, carts, "cart.totals"));
+    }
+
+    public long version(Long cartId) {
+        return carts.get(cartId, id -> new Entry(clock.incrementAndGet(), NO_TOTAL)).version();
+    }
+
+    public Map<Long, Long> versions(Collection<Long> cartIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        carts.getAll(cartIds, missing -> {
+            Map<Long, Entry> created = new HashMap<>();
+            missing.forEach(cartId -> created.put(cartId, new Entry(clock.incrementAndGet(), NO_TOTAL)));
+            return created;
+        }).forEach((cartId, entry) -> versions.put(cartId, entry.version()));
+        return versions;
+    }
+
+    /**
+     * Marks the cart's lines as changed; inside a transaction this takes effect once it commits.
+     */
+    public void linesChanged(Long cartId) {
+        linesChanged(List.of(cartId));
+    }
+
+    public void linesChanged(Collection<Long> cartIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> changed = List.copyOf(cartIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(changed);
+                }
+            });
+        } else {
+            bump(cartIds);
+        }
+    }
+
+    /**
+     * Total of the cart's lines as read at {@code version}, reusing the cached total while the version is current.
+     */
+    public double total(Long cartId, long version, long[] unitCents, int[] quantities) {
+        Entry cached = carts.getIfPresent(cartId);
+        if (cached != null && cached.version() == version && cached.cents() != NO_TOTAL) {
+            return fromCents(cached.cents());
+        }
+        long cents = totalCents(unitCents, quantities);
+        //only stored if the lines have not changed since the version was taken
+        carts.asMap().computeIfPresent(cartId,
+                (id, current) -> current.version() == version ? new Entry(version, cents) : current);
+        return fromCents(cents);
+    }
+
+    public static double total(List<CartItem> cartItems) {
+        long[] unitCents = new long[cartItems.size()];
+        int[] quantities = new int[cartItems.size()];
+        for (int i = 0; i < unitCents.length; i++) {
+            CartItem cartItem = cartItems.get(i);
+            unitCents[i] = toCents(cartItem.getProductPrice());
+            quantities[i] = cartItem.getQuantity();
+        }
+        return fromCents(totalCents(unitCents, quantities));
+    }
+
+    public static long totalCents(long[] unitCents, int[] quantities) {
+        long cents = 0;
+        for (int i = 0; i < unitCents.length; i++) {
+            cents += unitCents[i] * quantities[i];
+        }
+        return cents;
+    }
+
+    public static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    public static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    private void bump(Collection<Long> cartIds) {
+        for (Long cartId : cartIds) {
+            carts.asMap().merge(cartId, new Entry(clock.incrementAndGet(), NO_TOTAL),
+                    (current, bumped) -> current.version() > bumped.version() ? current : bumped);
+        }
+    }
+}
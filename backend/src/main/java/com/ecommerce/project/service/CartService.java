@@ -2,7 +2,6 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
-import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
@@ -14,7 +13,6 @@ public interface CartService {
 
     CartDTO getCart(String emailId, Long cartId);
 
-    @Transactional
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
 
     String deleteProductFromCart(Long cartId, Long productId);
@@ -5,20 +5,26 @@ import com.ecommerce.project.Repository.CartRepository;
 import com.ecommerce.project.Repository.ProductRepository;
 import com.ecommerce.project.exceptions.ApiException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CartMapper;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
+import com.ecommerce.project.payload.CartLineDTO;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.util.AuthUtil;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 import java.util.stream.Stream;
 
 @Service
@@ -36,10 +42,33 @@ public class CartServiceImpl implements CartService{
     CartItemRepository cartItemRepository;
 
     @Autowired
-    ModelMapper modelMapper;
+    private CartMapper cartMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cart.listing.max-carts:1000}")
+    private int maxListedCarts;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
     public CartDTO addProductToCart(Long productId, Integer quantity) {
+        cartWriteBehindStore.flush(authUtil.loggedInEmail());
         Cart cart  = createCart();
 
         Product product = productRepository.findById(productId)
@@ -70,17 +99,15 @@ public class CartServiceImpl implements CartService{
 
         cartItemRepository.save(newCartItem);
         cart.getCartItems().add(newCartItem);
+        cartPricing.linesChanged(cart.getCartId());
 
-        cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice() * quantity));
-        cartRepository.save(cart);
-
-
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        CartDTO cartDTO = cartMapper.toDTO(cart);
 
         List<CartItem> cartItems = cart.getCartItems();
+        cartDTO.setTotalPrice(CartPricing.total(cartItems));
 
         Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
+            ProductDTO map = productMapper.toDTO(item.getProduct());
             map.setQuantity(item.getQuantity());
             return map;
         });
@@ -92,49 +119,40 @@ public class CartServiceImpl implements CartService{
 
     @Override
     public List<CartDTO> getAllCarts() {
-        List<Cart>carts = cartRepository.findAll();
-
-        if(carts.isEmpty()){
+        cartWriteBehindStore.flushAll();
+        //versions are taken for the listed carts before their lines are read
+        List<Long> cartIds = cartRepository.findFirstCartIds(PageRequest.of(0, maxListedCarts));
+        Map<Long, Long> versions = cartPricing.versions(cartIds);
+        List<CartDTO> cartDTOs = cartIds.isEmpty() ? List.of()
+                : toCartDTOs(cartRepository.findCartLinesByCartIds(cartIds), versions);
+
+        if(cartDTOs.isEmpty()){
             throw new ApiException("No carts exists");
         }
 
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
-                productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
-                return productDTO;
-            }).collect(Collectors.toList());
-
-
-            cartDTO.setProducts(products);
-
-            return cartDTO;
-
-        }).collect(Collectors.toList());
-
         return cartDTOs;
     }
 
     @Override
     public CartDTO getCart(String emailId, Long cartId) {
-        Cart cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
-        if(cart==null){
+        cartWriteBehindStore.flush(emailId);
+        Map<Long, Long> versions = Map.of(cartId, cartPricing.version(cartId));
+        List<CartDTO> carts = toCartDTOs(cartRepository.findCartLines(emailId, cartId), versions);
+        if(carts.isEmpty()){
             throw new ResourceNotFoundException("Cart","cartId",cartId);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        cart.getCartItems().forEach(c->c.getProduct().setQuantity(c.getQuantity()));
-        List<ProductDTO>products = cart.getCartItems().stream().
-                map(p->modelMapper.map(p.getProduct(), ProductDTO.class))
-                .toList();
-        cartDTO.setProducts(products);
-        return cartDTO;
+        return carts.get(0);
     }
 
     @Override
-    @Transactional
     public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        if(cartWriteBehindStore.isEnabled()){
+            return cartWriteBehindStore.updateQuantity(authUtil.loggedInEmail(), productId, quantity);
+        }
+        return transactionTemplate.execute(status -> updateProductQuantityInDatabase(productId, quantity));
+    }
+
+    private CartDTO updateProductQuantityInDatabase(Long productId, Integer quantity) {
         String emailId = authUtil.loggedInEmail();
         Cart userCart  =cartRepository.findCartByEmail(emailId);
         Long cartId = userCart.getCartId();
@@ -171,20 +189,23 @@ public class CartServiceImpl implements CartService{
             cartItem.setProductPrice(product.getSpecialPrice());
             cartItem.setQuantity(cartItem.getQuantity() + quantity);
             cartItem.setDiscount(product.getDiscount());
-            cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * quantity));
-            cartRepository.save(cart);
         }
 
         CartItem updatedCartItem = cartItemRepository.save(cartItem);
         if(updatedCartItem.getQuantity()==0){
             cartItemRepository.deleteById(updatedCartItem.getCartItemId());
         }
+        cartPricing.linesChanged(cartId);
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        List<CartItem>cartItems = cart.getCartItems();
+        CartDTO cartDTO = cartMapper.toDTO(cart);
+        //a line removed above is still in the loaded collection
+        List<CartItem>cartItems = cart.getCartItems().stream()
+                .filter(item -> newQuantity > 0 || item != cartItem)
+                .toList();
+        cartDTO.setTotalPrice(CartPricing.total(cartItems));
 
         Stream<ProductDTO>productStream = cartItems.stream().map(item -> {
-            ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+            ProductDTO productDTO = productMapper.toDTO(item.getProduct());
             productDTO.setQuantity(item.getQuantity());
             return productDTO;
         });
@@ -196,6 +217,7 @@ public class CartServiceImpl implements CartService{
     @Override
     @Transactional
     public String deleteProductFromCart(Long cartId, Long productId) {
+        cartWriteBehindStore.flushCart(cartId);
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(()->new ResourceNotFoundException("Cart","cartId",cartId));
 
@@ -205,15 +227,15 @@ public class CartServiceImpl implements CartService{
             throw new ResourceNotFoundException("Product","productId",productId);
         }
 
-        cart.setTotalPrice(cart.getTotalPrice() - (cartItem.getProductPrice() * cartItem.getQuantity()));
-
         cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
+        cartPricing.linesChanged(cart.getCartId());
 
         return "Product " + cartItem.getProduct().getProductName() + " removed";
     }
 
     @Override
     public void updateProductInCart(Long cartId, Long productId) {
+        cartWriteBehindStore.flushCart(cartId);
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(()->new ResourceNotFoundException("Cart", "cartId", cartId));
 
@@ -226,13 +248,10 @@ public class CartServiceImpl implements CartService{
             throw  new ApiException("Product " + product.getProductName()+ " not available in the cart!!!");
         }
 
-        double cartPrice = cart.getTotalPrice() - (cartItem.getProductPrice()*cartItem.getQuantity());
-
         cartItem.setProductPrice(product.getSpecialPrice());
 
-        cart.setTotalPrice(cartPrice + (cartItem.getProductPrice() * cartItem.getQuantity()));
-
         cartItem = cartItemRepository.save(cartItem);
+        cartPricing.linesChanged(cart.getCartId());
     }
 
     @Transactional
@@ -240,47 +259,100 @@ public class CartServiceImpl implements CartService{
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
         //Get User email
         String emailId = authUtil.loggedInEmail();
+        cartWriteBehindStore.flush(emailId);
 
-        //check if existing cart is available or craete a new one
-        Cart existingCart = cartRepository.findCartByEmail(emailId);
+        //check if existing cart is available or craete a new one, loading its items and their products with it
+        Cart existingCart = cartRepository.findCartWithItemsByEmail(emailId);
         if(existingCart==null){
             existingCart = new Cart();
-            existingCart.setTotalPrice(0.0);
             existingCart.setUser(authUtil.loggedInUser());
             existingCart = cartRepository.save(existingCart);
         }
-        else{
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
-        }
 
-        double totalPrice = 0.0;
-        //process each item in the request to add to cart
+        //requested quantity per product, repeated products are added up
+        Map<Long, Integer> requested = new LinkedHashMap<>();
         for(CartItemDTO cartItemDTO : cartItems){
-            Long productId = cartItemDTO.getProductId();
-            Integer quantity = cartItemDTO.getQuantity();
-
-            //Find product by id
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(()->new ResourceNotFoundException("Product","productId",productId));
-
-            //Directly update product stock and total price
-            //product.setQuantity(product.getQuantity()-1);
-            totalPrice+=product.getSpecialPrice()*quantity;
-
-            //create and save
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
-            cartItem.setQuantity(quantity);
+            requested.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Integer::sum);
+        }
+
+        //Find all products in one query
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(requested.keySet()).forEach(product -> products.put(product.getProductId(), product));
+        for(Long productId : requested.keySet()){
+            if(!products.containsKey(productId)){
+                throw new ResourceNotFoundException("Product","productId",productId);
+            }
+        }
+
+        //diff against the current lines: drop the ones no longer requested, update the rest in place
+        Map<Long, CartItem> existingItems = new HashMap<>();
+        Iterator<CartItem> iterator = existingCart.getCartItems().iterator();
+        while(iterator.hasNext()){
+            CartItem cartItem = iterator.next();
+            Long productId = cartItem.getProduct().getProductId();
+            if(requested.containsKey(productId) && !existingItems.containsKey(productId)){
+                existingItems.put(productId, cartItem);
+            }
+            else{
+                iterator.remove();
+            }
+        }
+
+        List<CartItem> newItems = new ArrayList<>();
+        for(Map.Entry<Long, Integer> entry : requested.entrySet()){
+            Product product = products.get(entry.getKey());
+            CartItem cartItem = existingItems.get(entry.getKey());
+            if(cartItem==null){
+                cartItem = new CartItem();
+                cartItem.setProduct(product);
+                cartItem.setCart(existingCart);
+                newItems.add(cartItem);
+                existingCart.getCartItems().add(cartItem);
+            }
+            cartItem.setQuantity(entry.getValue());
             cartItem.setProductPrice(product.getSpecialPrice());
             cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
         }
-        existingCart.setTotalPrice(totalPrice);
-        cartRepository.save(existingCart);
+        //sequence ids let these go out as one JDBC batch
+        cartItemRepository.saveAll(newItems);
+        cartPricing.linesChanged(existingCart.getCartId());
         return "Cart created/updated with the new items successfully!!!";
     }
 
+    //Groups the projection rows, ordered by cart, into one CartDTO per cart and prices each from its lines
+    private List<CartDTO> toCartDTOs(List<CartLineDTO> lines, Map<Long, Long> versions) {
+        List<CartDTO> carts = new ArrayList<>();
+        int start = 0;
+        while (start < lines.size()) {
+            Long cartId = lines.get(start).getCartId();
+            int end = start;
+            while (end < lines.size() && lines.get(end).getCartId().equals(cartId)) {
+                end++;
+            }
+            List<CartLineDTO> cartLines = lines.subList(start, end);
+            if (cartLines.get(0).getProductId() == null) {
+                //LEFT JOIN row of an empty cart
+                cartLines = List.of();
+            }
+            long[] unitCents = new long[cartLines.size()];
+            int[] quantities = new int[cartLines.size()];
+            CartDTO cartDTO = new CartDTO();
+            cartDTO.setCartId(cartId);
+            for (int i = 0; i < cartLines.size(); i++) {
+                CartLineDTO line = cartLines.get(i);
+                unitCents[i] = CartPricing.toCents(line.getProductPrice());
+                quantities[i] = line.getQuantity();
+                cartDTO.getProducts().add(new ProductDTO(line.getProductId(), line.getProductName(),
+                        line.getDescription(), line.getQuantity(), line.getImage(), line.getPrice(),
+                        line.getDiscount(), line.getSpecialPrice()));
+            }
+            cartDTO.setTotalPrice(cartPricing.total(cartId, versions.getOrDefault(cartId, 0L), unitCents, quantities));
+            carts.add(cartDTO);
+            start = end;
+        }
+        return carts;
+    }
+
     private Cart createCart() {
         Cart userCart  = cartRepository.findCartByEmail(authUtil.loggedInEmail());
         if(userCart != null){
@@ -288,7 +360,6 @@ public class CartServiceImpl implements CartService{
         }
 
         Cart cart = new Cart();
-        cart.setTotalPrice(0.00);
         cart.setUser(authUtil.loggedInUser());
         Cart newCart =  cartRepository.save(cart);
 
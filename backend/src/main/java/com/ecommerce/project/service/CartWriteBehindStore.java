@@ -0,0 +1,468 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.CartRepository;
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind store for cart quantity changes.
+ * Active carts are held in memory per user; quantity changes are applied there, appended to a local journal that is
+ * forced to disk before the call returns, and written to {@code cart_items} in batches on a timer.
+ * Journal entries carry absolute quantities, so replaying them after a crash is idempotent; once a cart's changes
+ * are written and it is dropped from memory a marker is journaled, so replay never overwrites later direct writes.
+ * Every other cart operation calls {@link #flush(String)} or {@link #flushCart(Long)} first, which writes the user's
+ * pending changes and drops the in-memory copy, so the database stays the source of truth outside this hot path.
+ */
+@Component
+public class CartWriteBehindStore {
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteBehindStore.class);
+
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+    private static final String FLUSHED_MARKER = "flushed";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.journal-dir:cart-journal}")
+    private String journalDir;
+
+    @Value("${cart.write-behind.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    private TransactionTemplate transactionTemplate;
+    private final Map<String, ActiveCart> carts = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailByCartId = new ConcurrentHashMap<>();
+
+    private final Object journalLock = new Object();
+    private Path journalPath;
+    private FileChannel journal;
+    private long journalSequence;
+
+    private static class Line {
+        final long cartItemId;
+        final ProductDTO product;
+        final long unitCents;
+        final int stock;
+        int quantity;
+
+        Line(long cartItemId, ProductDTO product, long unitCents, int stock, int quantity) {
+            this.cartItemId = cartItemId;
+            this.product = product;
+            this.unitCents = unitCents;
+            this.stock = stock;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class ActiveCart {
+        final long cartId;
+        final String email;
+        final Map<Long, Line> lines = new LinkedHashMap<>();
+        final Set<Long> dirty = new HashSet<>();
+        final ReentrantLock lock = new ReentrantLock();
+        long lastAccess = System.currentTimeMillis();
+        boolean journaled;
+        boolean evicted;
+
+        ActiveCart(long cartId, String email) {
+            this.cartId = cartId;
+            this.email = email;
+        }
+    }
+
+    private record PendingWrite(long cartId, long productId, long cartItemId, int quantity) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Path dir = Paths.get(journalDir);
+        //replay whatever a previous process acknowledged but never wrote, even if write-behind is now off
+        if (Files.isDirectory(dir)) {
+            recover(journalFiles(dir));
+        }
+        if (enabled) {
+            Files.createDirectories(dir);
+            openJournal(dir);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (enabled) {
+            flushAll();
+            synchronized (journalLock) {
+                journal.close();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Changes the quantity of a product already in the user's cart by {@code delta}; a resulting quantity of
+     * zero removes the line. Returns the cart as it now stands in memory.
+     */
+    public CartDTO updateQuantity(String email, Long productId, int delta) {
+        while (true) {
+            ActiveCart cart = carts.computeIfAbsent(email, this::load);
+            cart.lock.lock();
+            try {
+                if (cart.evicted) {
+                    continue;
+                }
+                Line line = cart.lines.get(productId);
+                if (line == null || line.quantity == 0) {
+                    throw new ApiException("Product " + productId + " not available in the cart");
+                }
+                if (line.stock == 0) {
+                    throw new ApiException(line.product.getProductName() + " is not available");
+                }
+                if (line.stock < delta) {
+                    throw new ApiException("Please, make an order of the " + line.product.getProductName()
+                            + " less than or equal to the quantity " + line.stock + ".");
+                }
+                int newQuantity = line.quantity + delta;
+                if (newQuantity < 0) {
+                    throw new ApiException("The resulting quantity cannot be negative");
+                }
+                appendToJournal(cart.cartId + "," + line.cartItemId + "," + newQuantity);
+                //a line at zero stays until its delete is written, so a failed flush can retry it
+                line.quantity = newQuantity;
+                cart.dirty.add(productId);
+                cart.journaled = true;
+                cart.lastAccess = System.currentTimeMillis();
+                return toDTO(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the user's pending changes and drops the cached cart; call before any other cart read or write.
+     */
+    public void flush(String email) {
+        ActiveCart cart = carts.get(email);
+        if (cart != null) {
+            cart.lock.lock();
+            try {
+                if (!cart.evicted) {
+                    write(List.of(cart));
+                    evict(cart);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    public void flushCart(Long cartId) {
+        String email = emailByCartId.get(cartId);
+        if (email != null) {
+            flush(email);
+        }
+    }
+
+    /**
+     * Batched write of every pending change, then eviction of carts idle for longer than the configured time.
+     * The journal is rotated first, so the files it leaves behind are covered by this write and can be deleted.
+     * Every cached cart stays locked from reading its pending lines until the write commits, so a concurrent
+     * {@link #flush(String)} cannot commit a newer quantity that this write would then overwrite.
+     */
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flushAll() {
+        if (!enabled) {
+            return;
+        }
+        List<Path> flushedJournals = rotateJournal();
+        //always locked in cart id order; no other path holds more than one cart lock
+        List<ActiveCart> active = new ArrayList<>(carts.values());
+        active.sort(Comparator.comparingLong(cart -> cart.cartId));
+        List<ActiveCart> locked = new ArrayList<>();
+        try {
+            for (ActiveCart cart : active) {
+                cart.lock.lock();
+                locked.add(cart);
+            }
+            List<ActiveCart> live = locked.stream().filter(cart -> !cart.evicted).toList();
+            write(live);
+
+            long idleBefore = System.currentTimeMillis() - idleEvictMs;
+            for (ActiveCart cart : live) {
+                if (cart.lastAccess < idleBefore) {
+                    evict(cart);
+                }
+            }
+        } finally {
+            locked.forEach(cart -> cart.lock.unlock());
+        }
+        try {
+            for (Path file : flushedJournals) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Catalog edits change prices and stock that cached lines show, so cached carts are written and dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        for (ActiveCart cart : new ArrayList<>(carts.values())) {
+            try {
+                flush(cart.email);
+            } catch (RuntimeException e) {
+                //still pending, the scheduled flush retries it
+            }
+        }
+    }
+
+    //Caller holds the cart's lock and has written its pending lines
+    private void evict(ActiveCart cart) {
+        if (cart.journaled) {
+            //the database is now ahead of this cart's journal entries, so replay must skip them
+            appendToJournal(cart.cartId + "," + FLUSHED_MARKER);
+        }
+        cart.evicted = true;
+        carts.remove(cart.email, cart);
+        emailByCartId.remove(cart.cartId, cart.email);
+    }
+
+    /**
+     * Writes the pending lines of the given carts in one transaction; the caller holds every cart's lock.
+     * Lines stay dirty if the write fails, so the next flush retries them.
+     */
+    private void write(List<ActiveCart> lockedCarts) {
+        List<PendingWrite> writes = new ArrayList<>();
+        List<Long> cartIds = new ArrayList<>();
+        for (ActiveCart cart : lockedCarts) {
+            for (Long productId : cart.dirty) {
+                Line line = cart.lines.get(productId);
+                writes.add(new PendingWrite(cart.cartId, productId, line.cartItemId, line.quantity));
+            }
+            if (!cart.dirty.isEmpty()) {
+                cartIds.add(cart.cartId);
+            }
+        }
+        if (!writes.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    applyToDatabase(writes);
+                    cartPricing.linesChanged(cartIds);
+                });
+            } catch (RuntimeException e) {
+                //the journal still holds the changes until a write succeeds
+                logger.warn("Cart write-behind flush of {} lines failed, will retry", writes.size(), e);
+                throw e;
+            }
+        }
+        for (ActiveCart cart : lockedCarts) {
+            cart.dirty.clear();
+            cart.lines.values().removeIf(line -> line.quantity == 0);
+        }
+    }
+
+    private void applyToDatabase(List<PendingWrite> writes) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            if (write.quantity() > 0) {
+                updates.add(new Object[]{write.quantity(), write.cartItemId()});
+            } else {
+                deletes.add(new Object[]{write.cartItemId()});
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE cart_items SET quantity = ? WHERE cart_item_id = ?", updates);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE cart_item_id = ?", deletes);
+        }
+    }
+
+    private ActiveCart load(String email) {
+        Cart cart = cartRepository.findCartWithItemsByEmail(email);
+        if (cart == null) {
+            throw new ResourceNotFoundException("Cart", "email", email);
+        }
+        ActiveCart activeCart = new ActiveCart(cart.getCartId(), email);
+        for (CartItem cartItem : cart.getCartItems()) {
+            activeCart.lines.put(cartItem.getProduct().getProductId(), new Line(cartItem.getCartItemId(),
+                    productMapper.toDTO(cartItem.getProduct()), CartPricing.toCents(cartItem.getProductPrice()),
+                    cartItem.getProduct().getQuantity(), cartItem.getQuantity()));
+        }
+        emailByCartId.put(activeCart.cartId, email);
+        return activeCart;
+    }
+
+    private static CartDTO toDTO(ActiveCart cart) {
+        CartDTO cartDTO = new CartDTO();
+        cartDTO.setCartId(cart.cartId);
+        long[] unitCents = new long[cart.lines.size()];
+        int[] quantities = new int[cart.lines.size()];
+        int i = 0;
+        List<ProductDTO> products = new ArrayList<>();
+        for (Line line : cart.lines.values()) {
+            //lines at zero are priced at nothing and left out of the product list
+            unitCents[i] = line.unitCents;
+            quantities[i++] = line.quantity;
+            if (line.quantity == 0) {
+                continue;
+            }
+            ProductDTO product = line.product;
+            products.add(new ProductDTO(product.getProductId(), product.getProductName(), product.getDescription(),
+                    line.quantity, product.getImage(), product.getPrice(), product.getDiscount(),
+                    product.getSpecialPrice(), product.getImages()));
+        }
+        cartDTO.setTotalPrice(CartPricing.fromCents(CartPricing.totalCents(unitCents, quantities)));
+        cartDTO.setProducts(products);
+        return cartDTO;
+    }
+
+    private void appendToJournal(String line) {
+        byte[] entry = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        synchronized (journalLock) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(entry);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journal.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not append to the cart journal", e);
+            }
+        }
+    }
+
+    private List<Path> rotateJournal() {
+        synchronized (journalLock) {
+            try {
+                Path dir = journalPath.getParent();
+                journal.close();
+                List<Path> previous = journalFiles(dir);
+                openJournal(dir);
+                return previous;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void openJournal(Path dir) throws IOException {
+        journalSequence = Math.max(journalSequence, System.currentTimeMillis()) + 1;
+        journalPath = dir.resolve(JOURNAL_PREFIX + journalSequence + JOURNAL_SUFFIX);
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void recover(List<Path> files) throws IOException {
+        if (files.isEmpty()) {
+            return;
+        }
+        Map<Long, PendingWrite> latest = new LinkedHashMap<>();
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+                String entry;
+                while ((entry = reader.readLine()) != null) {
+                    String[] fields = entry.split(",");
+                    try {
+                        if (fields.length == 2 && FLUSHED_MARKER.equals(fields[1])) {
+                            long cartId = Long.parseLong(fields[0]);
+                            latest.values().removeIf(write -> write.cartId() == cartId);
+                            continue;
+                        }
+                        if (fields.length != 3) {
+                            continue; //torn final write
+                        }
+                        PendingWrite write = new PendingWrite(Long.parseLong(fields[0]), 0L, Long.parseLong(fields[1]),
+                                Integer.parseInt(fields[2]));
+                        latest.put(write.cartItemId(), write);
+                    } catch (NumberFormatException e) {
+                        //torn final write
+                    }
+                }
+            }
+        }
+        if (!latest.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                applyToDatabase(new ArrayList<>(latest.values()));
+                cartPricing.linesChanged(latest.values().stream().map(PendingWrite::cartId).distinct().toList());
+            });
+            logger.info("Replayed {} cart line changes from the write-behind journal", latest.size());
+        }
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<Path> journalFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(JOURNAL_PREFIX) && name.endsWith(JOURNAL_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(CartWriteBehindStore::journalSequence))
+                    .toList();
+        }
+    }
+
+    private static long journalSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length()));
+    }
+}
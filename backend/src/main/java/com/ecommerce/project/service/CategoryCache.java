@@ -0,0 +1,105 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.CategoryRepository;
+import com.ecommerce.project.mapper.CategoryMapper;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.CategoryResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for categories, which are read on every storefront page but change rarely.
+ * Lookups by id and name and the paged listing are cached separately; every category write evicts
+ * the affected entries, and hit/miss counts are published as the {@code cache.*} metrics.
+ */
+@Component
+public class CategoryCache {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${category.cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${category.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<Long, CategoryDTO> byId;
+    private Cache<String, CategoryDTO> byName;
+    private Cache<String, CategoryResponse> pages;
+
+    @PostConstruct
+    public void init() {
+        byId = newCache();
+        byName = newCache();
+        pages = newCache();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, byId, "categories.byId");
+            CaffeineCacheMetrics.monitor(registry, byName, "categories.byName");
+            CaffeineCacheMetrics.monitor(registry, pages, "categories.pages");
+        });
+    }
+
+    public Optional<CategoryDTO> findById(Long categoryId) {
+        return Optional.ofNullable(byId.get(categoryId, id ->
+                categoryRepository.findById(id).map(categoryMapper::toDTO).orElse(null)));
+    }
+
+    public Optional<CategoryDTO> findByName(String categoryName) {
+        return Optional.ofNullable(byName.get(categoryName, name -> {
+            Category category = categoryRepository.findByCategoryName(name);
+            return category != null ? categoryMapper.toDTO(category) : null;
+        }));
+    }
+
+    public CategoryResponse getPage(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,
+                                    Supplier<CategoryResponse> loader) {
+        String key = pageNumber + "|" + pageSize + "|" + sortBy + "|" + sortOrder.toLowerCase();
+        return pages.get(key, k -> loader.get());
+    }
+
+    /**
+     * Evicts one category by id and name, and every cached page since any of them may list it.
+     */
+    public void evict(Long categoryId, String categoryName) {
+        if (categoryId != null) {
+            byId.invalidate(categoryId);
+        }
+        if (categoryName != null) {
+            byName.invalidate(categoryName);
+        }
+        pages.invalidateAll();
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        byName.invalidateAll();
+        pages.invalidateAll();
+    }
+
+    private <K, V> Cache<K, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+}
@@ -1,13 +1,18 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.Repository.CategoryRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.event.ProductCountChangedEvent;
 import com.ecommerce.project.exceptions.ApiException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CategoryMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,11 +26,31 @@ public class CategoryServiceImplementation implements CategoryService{
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        return categoryCache.getPage(pageNumber, pageSize, sortBy, sortOrder,
+                () -> loadCategories(pageNumber, pageSize, sortBy, sortOrder));
+    }
+
+    private CategoryResponse loadCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -38,7 +63,7 @@ public class CategoryServiceImplementation implements CategoryService{
             throw new ApiException("No category created till now.");
 
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(category -> categoryMapper.toDTO(category))
                 .toList();
 
         CategoryResponse categoryResponse = new CategoryResponse();
@@ -54,11 +79,12 @@ public class CategoryServiceImplementation implements CategoryService{
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         Category category = modelMapper.map(categoryDTO, Category.class);
-        Category categoryFromDb = categoryRepository.findByCategoryName(category.getCategoryName());
-        if (categoryFromDb != null)
+        if (categoryCache.findByName(category.getCategoryName()).isPresent())
             throw new ApiException("Category with the name " + category.getCategoryName() + " already exists !!!");
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        categoryCache.evict(savedCategory.getCategoryId(), savedCategory.getCategoryName());
+        eventPublisher.publishEvent(new CatalogChangedEvent("category created"));
+        return categoryMapper.toDTO(savedCategory);
     }
 
     @Override
@@ -66,8 +92,15 @@ public class CategoryServiceImplementation implements CategoryService{
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
+        //the category's products go with it through the cascade
+        List<Long> productIds = productRepository.findProductIdsByCategoryId(categoryId);
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        productIds.forEach(productSearchIndex::remove);
+        if (!productIds.isEmpty())
+            eventPublisher.publishEvent(new ProductCountChangedEvent(-productIds.size()));
+        categoryCache.evict(categoryId, category.getCategoryName());
+        eventPublisher.publishEvent(new CatalogChangedEvent("category deleted"));
+        return categoryMapper.toDTO(category);
     }
 
     @Override
@@ -77,7 +110,11 @@ public class CategoryServiceImplementation implements CategoryService{
 
         Category category = modelMapper.map(categoryDTO, Category.class);
         category.setCategoryId(categoryId);
+        String previousName = savedCategory.getCategoryName();
         savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        categoryCache.evict(categoryId, previousName);
+        categoryCache.evict(categoryId, savedCategory.getCategoryName());
+        eventPublisher.publishEvent(new CatalogChangedEvent("category updated"));
+        return categoryMapper.toDTO(savedCategory);
     }
 }
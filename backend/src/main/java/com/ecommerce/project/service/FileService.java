@@ -3,7 +3,10 @@ package com.ecommerce.project.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface FileService {
     String uploadImage(String path, MultipartFile file) throws IOException;
+
+    String uploadImage(String path, InputStream in, String extension, long maxBytes) throws IOException;
 }
@@ -1,31 +1,78 @@
 package com.ecommerce.project.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
 
 @Service
 public class FileServiceImpl implements FileService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
         //FileName of current file
         String originalFileName = file.getOriginalFilename();
-        //Generate a unique filename
-        String randomId = UUID.randomUUID().toString();
-        String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf('.')));
-        String filePath = path + File.pathSeparator + fileName;
+        String extension = originalFileName.substring(originalFileName.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        try (InputStream in = file.getInputStream()) {
+            return uploadImage(path, in, extension, Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public String uploadImage(String path, InputStream in, String extension, long maxBytes) throws IOException {
         //check if path exists and create
-        File folder = new File(path);
-        if(!folder.exists()){
-            folder.mkdir();
+        Path folder = Paths.get(path);
+        Files.createDirectories(folder);
+        //Stream to a temp file next to the final one while hashing, then name the file after its content
+        Path tempFile = Files.createTempFile(folder, "upload-", ".tmp");
+        MessageDigest digest = sha256();
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new MaxUploadSizeExceededException(maxBytes);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String fileName = HexFormat.of().formatHex(digest.digest()) + extension;
+            Path target = folder.resolve(fileName);
+            if (Files.exists(target)) {
+                //Same content is already stored; refresh it so garbage collection leaves it alone until the product is saved
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        //Upload to server
-        Files.copy(file.getInputStream(), Paths.get(filePath));
-        return fileName;
     }
 }
@@ -0,0 +1,177 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reclaims image files that no product points at any more.
+ * Uploads are stored once per content hash and shared by every product using the same picture; the reference
+ * count of a blob is the number of {@code Product.image} rows naming it. Blobs with no references are deleted
+ * together with their renditions once they are older than the grace period, which covers uploads whose product
+ * row is not written yet (a duplicate upload refreshes the blob's modification time).
+ * The age is checked again right before deleting, so a blob refreshed while the collector was running survives.
+ * Names that are neither content-addressed nor legacy UUIDs, such as {@code default.png}, are never touched.
+ */
+@Component
+public class ImageGarbageCollector {
+    private static final Logger logger = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    private static final Pattern ORIGINAL = Pattern.compile(
+            "^([0-9a-f]{64}|[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})\\.[A-Za-z0-9]+$");
+    private static final Pattern RENDITION = Pattern.compile("^([0-9a-f]{64})-\\d+\\.[A-Za-z0-9]+$");
+    private static final Pattern TEMP_FILE = Pattern.compile("^(upload|rendition)-.*\\.tmp$");
+    private static final int REFERENCE_BATCH_SIZE = 500;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImagePipeline productImagePipeline;
+
+    @Autowired
+    private ImageServer imageServer;
+
+    @Value("${project.image}")
+    private String path;
+
+    @Value("${product.image.gc-grace-minutes:60}")
+    private long graceMinutes;
+
+    public record Result(int deletedFiles, long deletedBytes) {
+    }
+
+    //files deleted together once the guard file is still older than the cutoff; blob is null for loose files
+    private record Garbage(Path guard, String blob, List<Path> files) {
+    }
+
+    @Scheduled(fixedDelayString = "${product.image.gc-interval-ms:3600000}",
+            initialDelayString = "${product.image.gc-interval-ms:3600000}")
+    public Result collect() throws IOException {
+        Path root = Paths.get(path);
+        if (!Files.isDirectory(root)) {
+            return new Result(0, 0);
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes));
+
+        //original file name -> owned files (the original and, for content hashes, its renditions)
+        Map<String, List<Path>> blobs = new HashMap<>();
+        Map<String, String> originalByHash = new HashMap<>();
+        Map<String, List<Path>> renditionsByHash = new HashMap<>();
+        List<Path> staleTempFiles = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher original = ORIGINAL.matcher(name);
+                Matcher rendition = RENDITION.matcher(name);
+                if (original.matches()) {
+                    blobs.computeIfAbsent(name, n -> new ArrayList<>()).add(file);
+                    originalByHash.put(original.group(1), name);
+                } else if (rendition.matches()) {
+                    renditionsByHash.computeIfAbsent(rendition.group(1), h -> new ArrayList<>()).add(file);
+                } else if (TEMP_FILE.matcher(name).matches() && isOlderThan(file, cutoff)) {
+                    staleTempFiles.add(file);
+                }
+            }
+        }
+
+        List<Garbage> garbage = new ArrayList<>();
+        staleTempFiles.forEach(file -> garbage.add(new Garbage(file, null, List.of(file))));
+        renditionsByHash.forEach((hash, renditions) -> {
+            String original = originalByHash.get(hash);
+            if (original != null) {
+                blobs.get(original).addAll(renditions);
+            } else {
+                //the original is already gone, so nothing can reference these
+                renditions.forEach(file -> garbage.add(new Garbage(file, null, List.of(file))));
+            }
+        });
+
+        Set<String> referenced = referencedImages(blobs.keySet());
+        for (Map.Entry<String, List<Path>> blob : blobs.entrySet()) {
+            Path original = blob.getValue().get(0);
+            if (!referenced.contains(blob.getKey()) && isOlderThan(original, cutoff)) {
+                garbage.add(new Garbage(original, blob.getKey(), blob.getValue()));
+            }
+        }
+
+        int deletedFiles = 0;
+        long deletedBytes = 0;
+        for (Garbage candidate : garbage) {
+            //a duplicate upload may have refreshed the blob after the scan
+            if (!isOlderThan(candidate.guard(), cutoff)) {
+                continue;
+            }
+            if (candidate.blob() != null) {
+                productImagePipeline.evict(candidate.blob());
+            }
+            for (Path file : candidate.files()) {
+                try {
+                    long size = Files.size(file);
+                    if (Files.deleteIfExists(file)) {
+                        deletedFiles++;
+                        deletedBytes += size;
+                    }
+                    imageServer.evict(file.getFileName().toString());
+                } catch (NoSuchFileException ignored) {
+                    //removed concurrently
+                }
+            }
+        }
+        if (deletedFiles > 0) {
+            logger.info("Image garbage collection removed {} files ({} bytes) of {} stored images",
+                    deletedFiles, deletedBytes, blobs.size());
+        }
+        return new Result(deletedFiles, deletedBytes);
+    }
+
+    private Set<String> referencedImages(Collection<String> images) {
+        Set<String> referenced = new HashSet<>();
+        List<String> batch = new ArrayList<>(REFERENCE_BATCH_SIZE);
+        for (String image : images) {
+            batch.add(image);
+            if (batch.size() == REFERENCE_BATCH_SIZE) {
+                addReferenced(batch, referenced);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            addReferenced(batch, referenced);
+        }
+        return referenced;
+    }
+
+    private void addReferenced(List<String> batch, Set<String> referenced) {
+        for (Object[] row : productRepository.countImageReferences(batch)) {
+            if (((Number) row[1]).longValue() > 0) {
+                referenced.add((String) row[0]);
+            }
+        }
+    }
+
+    private static boolean isOlderThan(Path file, Instant cutoff) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.UploadCapacityExceededException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the bytes of image uploads being received at once across all requests.
+ * An upload reserves its declared length, or the per-file limit when the length is unknown, before any of the
+ * body is read; when the budget is spent it waits briefly and is then turned away, so a burst of uploads
+ * queues at the client instead of in server memory or temp space.
+ */
+@Component
+public class ImageUploadLimiter {
+
+    @Value("${product.image.upload.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${product.image.upload.max-in-flight-bytes:67108864}")
+    private int maxInFlightBytes;
+
+    @Value("${product.image.upload.wait-ms:2000}")
+    private long waitMs;
+
+    private Semaphore inFlightBytes;
+
+    @PostConstruct
+    public void init() {
+        inFlightBytes = new Semaphore(maxInFlightBytes, true);
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Reserves room for an upload of {@code contentLength} bytes (-1 when unknown);
+     * oversized uploads are rejected before anything is read.
+     */
+    public Permit reserve(long contentLength) {
+        if (contentLength > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
+        int bytes = (int) Math.min(contentLength >= 0 ? contentLength : maxBytes, maxInFlightBytes);
+        boolean acquired;
+        try {
+            acquired = inFlightBytes.tryAcquire(bytes, waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new UploadCapacityExceededException("Too many uploads in progress, please retry shortly");
+        }
+        return new Permit(bytes);
+    }
+
+    public int availableBytes() {
+        return inFlightBytes.availablePermits();
+    }
+
+    public class Permit implements AutoCloseable {
+        private final int bytes;
+        private boolean released;
+
+        private Permit(int bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                inFlightBytes.release(bytes);
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.Repository.*;
+import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.event.OrderPlacedEvent;
 import com.ecommerce.project.exceptions.ApiException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.OrderMapper;
 import com.ecommerce.project.model.*;
 import com.ecommerce.project.payload.OrderDTO;
 import com.ecommerce.project.payload.OrderItemDTO;
@@ -11,8 +14,12 @@ import com.ecommerce.project.payload.OrderStatusUpdateDTO;
 import com.ecommerce.project.util.AuthUtil;
 import jakarta.transaction.Transactional;
 import org.antlr.v4.runtime.ListTokenSource;
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,11 +27,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class OrderServiceImpl implements OrderService{
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
 
     @Autowired
     private CartRepository cartRepository;
@@ -42,13 +54,25 @@ public class OrderServiceImpl implements OrderService{
     private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private CartItemRepository cartItemRepository;
 
     @Autowired
-    private CartService cartService;
+    private SellerOrderRepository sellerOrderRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
 
     @Autowired
@@ -59,33 +83,39 @@ public class OrderServiceImpl implements OrderService{
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod,
                                String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
         //Getting User cart
-        Cart cart = cartRepository.findCartByEmail(emailId);
+        cartWriteBehindStore.flush(emailId);
+        Cart cart = cartRepository.findCartWithItemsByEmail(emailId);
         if(cart==null){
             throw new ResourceNotFoundException("Cart","email", emailId);
         }
 
+        //Get items from the cart into the order items
+        List<CartItem>cartItems = cart.getCartItems();
+        if(cartItems.isEmpty()){
+            throw new ApiException("Cart is Empty!!");
+        }
+
+        //Reserve stock before anything is written, the whole order rolls back if a product runs out
+        Map<Long, Integer> quantities = new HashMap<>();
+        cartItems.forEach(item -> quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum));
+        stockReservationService.reserve(quantities);
+
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(()->new ResourceNotFoundException("Address", "addressId", addressId));
         //Create a new order with payment info
         Order order = new Order();
         order.setEmail(emailId);
         order.setOrderDate(LocalDate.now());
-        order.setTotalAmount(cart.getTotalPrice());
-        order.setOrderStatus("Accepted!!");
+        order.setTotalAmount(CartPricing.total(cartItems));
+        order.setOrderStatus(AppConstants.ORDER_STATUS_ACCEPTED);
         order.setAddress(address);
 
         Payment payment = new Payment(paymentMethod, pgPaymentId, pgStatus, pgResponseMessage, pgName);
         payment.setOrder(order);
-        payment = paymentRepository.save(payment);
         order.setPayment(payment);
+        payment = paymentRepository.save(payment);
         Order savedOrder = orderRepository.save(order);
 
-        //Get items from the cart into the order items
-        List<CartItem>cartItems = cart.getCartItems();
-        if(cartItems.isEmpty()){
-            throw new ApiException("Cart is Empty!!");
-        }
-
         List<OrderItem> orderItems = new ArrayList<>();
         for(CartItem cartItem : cartItems){
             OrderItem orderItem = new OrderItem();
@@ -98,21 +128,34 @@ public class OrderServiceImpl implements OrderService{
         }
         orderItems = orderItemRepository.saveAll(orderItems);
 
-        //Update product stock
-        cart.getCartItems().forEach(item -> {
-            int quantity = item.getQuantity();
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() - quantity);
-            productRepository.save(product);
-
-            //Clear the cart
-            cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
-        });
+        //Index the order under every seller whose product it contains
+        List<SellerOrder> sellerOrders = cartItems.stream()
+                .map(item -> item.getProduct().getUser())
+                .filter(Objects::nonNull)
+                .map(User::getUserId)
+                .distinct()
+                .map(sellerId -> new SellerOrder(sellerId, savedOrder.getOrderId()))
+                .toList();
+        sellerOrderRepository.saveAll(sellerOrders);
+
+        //Clear the cart
+        cartItemRepository.deleteAllByCartId(cart.getCartId());
+        cartPricing.linesChanged(cart.getCartId());
+
+        List<OrderPlacedEvent.Line> lines = cartItems.stream()
+                .map(item -> new OrderPlacedEvent.Line(
+                        item.getProduct().getCategory() != null ? item.getProduct().getCategory().getCategoryId() : null,
+                        item.getProduct().getUser() != null ? item.getProduct().getUser().getUserId() : null,
+                        item.getQuantity(),
+                        item.getProductPrice() * item.getQuantity()))
+                .toList();
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder.getOrderId(), savedOrder.getTotalAmount(),
+                LocalDateTime.now(), lines));
 
         //Send back the order summary
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
+        OrderDTO orderDTO = orderMapper.toDTO(savedOrder);
         orderItems.forEach(item -> orderDTO.getOrderItems()
-                .add(modelMapper.map(item, OrderItemDTO.class)));
+                .add(orderMapper.toDTO(item)));
         orderDTO.setAddressId(addressId);
         return orderDTO;
     }
@@ -126,7 +169,7 @@ public class OrderServiceImpl implements OrderService{
 
         Page<Order>pageOrders = orderRepository.findAll(pageDetails);
         List<Order>orders = pageOrders.getContent();
-        List<OrderDTO>orderDTOS = orders.stream().map(order->modelMapper.map(order, OrderDTO.class))
+        List<OrderDTO>orderDTOS = orders.stream().map(order->orderMapper.toDTO(order))
                 .toList();
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setContent(orderDTOS);
@@ -139,12 +182,28 @@ public class OrderServiceImpl implements OrderService{
     }
 
     @Override
+    @Transactional
     public OrderDTO updateOrder(Long orderId, String status) {
         Order order = orderRepository.findById(orderId).orElseThrow(
                 ()->new ResourceNotFoundException("Order", "orderId", orderId));
+        if(isCancelled(order.getOrderStatus())){
+            //the stock went back on cancellation, reopening the order would sell it twice
+            if(!isCancelled(status)){
+                throw new ApiException("Order " + orderId + " is cancelled and cannot be reopened");
+            }
+            return orderMapper.toDTO(order);
+        }
+        if(isCancelled(status)){
+            //Stock is released only by the request that actually flips the status
+            if(orderRepository.updateStatusIfChanged(orderId, AppConstants.ORDER_STATUS_CANCELLED) == 1){
+                stockReservationService.release(order);
+            }
+            order.setOrderStatus(AppConstants.ORDER_STATUS_CANCELLED);
+            return orderMapper.toDTO(order);
+        }
         order.setOrderStatus(status);
         orderRepository.save(order);
-        return modelMapper.map(order, OrderDTO.class);
+        return orderMapper.toDTO(order);
     }
 
     @Override
@@ -154,24 +213,12 @@ public class OrderServiceImpl implements OrderService{
                 : Sort.by(sortBy).descending();
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
-        User seller = authUtil.loggedInUser();
-
-        Page<Order> pageOrders = orderRepository.findAll(pageDetails);
+        Long sellerId = authUtil.loggedInUserId();
 
-        List<Order> sellerOrders = pageOrders.getContent().stream()
-                .filter(order -> order.getOrderItems().stream()
-                        .anyMatch(orderItem -> {
-                            var product = orderItem.getProduct();
-                            if (product == null || product.getUser() == null) {
-                                return false;
-                            }
-                            return product.getUser().getUserId().equals(
-                                    seller.getUserId());
-                        }))
-                .toList();
+        Page<Order> pageOrders = orderRepository.findBySellerId(sellerId, pageDetails);
 
-        List<OrderDTO> orderDTOs = sellerOrders.stream()
-                .map(order -> modelMapper.map(order, OrderDTO.class))
+        List<OrderDTO> orderDTOs = pageOrders.getContent().stream()
+                .map(order -> orderMapper.toDTO(order))
                 .toList();
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setContent(orderDTOs);
@@ -182,4 +229,20 @@ public class OrderServiceImpl implements OrderService{
         orderResponse.setLastPage(pageOrders.isLast());
         return orderResponse;
     }
+
+    /**
+     * Indexes orders placed before the seller order index existed. Runs only while the index is empty.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillSellerOrderIndex() {
+        if (sellerOrderRepository.count() == 0 && orderItemRepository.count() > 0) {
+            int indexed = sellerOrderRepository.backfillFromOrderItems();
+            logger.info("Backfilled {} seller order index entries", indexed);
+        }
+    }
+
+    private boolean isCancelled(String status) {
+        return status != null && status.trim().equalsIgnoreCase(AppConstants.ORDER_STATUS_CANCELLED);
+    }
 }
@@ -0,0 +1,216 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Produces the sized renditions of a product image in the background.
+ * The original is decoded once and each rendition, named {@code {hash}-{width}.jpg} after the original's
+ * content hash, is scaled down from the next larger one. Work runs on a bounded pool; once its queue is full
+ * the uploading thread renders the image itself, which throttles bulk uploads instead of dropping them.
+ */
+@Component
+public class ProductImagePipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImagePipeline.class);
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^([0-9a-f]{64})\\.[A-Za-z0-9]+$");
+    private static final String RENDITION_FORMAT = "jpg";
+    private static final float RENDITION_QUALITY = 0.82f;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${project.image}")
+    private String path;
+
+    @Value("${product.image.rendition-widths:160,480,960}")
+    private int[] widths;
+
+    @Value("${product.image.pipeline-threads:2}")
+    private int threads;
+
+    @Value("${product.image.pipeline-queue:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private final Cache<String, Boolean> ready = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    @PostConstruct
+    public void init() {
+        widths = Arrays.stream(widths).sorted().distinct().toArray();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "product-image-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues rendition generation for an uploaded image; completes once every rendition is on disk.
+     */
+    public CompletableFuture<Void> submit(String imageName) {
+        String hash = contentHash(imageName);
+        if (hash == null || !renditions(imageName).isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                render(Paths.get(path).resolve(imageName), hash);
+                ready.put(hash, Boolean.TRUE);
+                eventPublisher.publishEvent(new CatalogChangedEvent("product image renditions ready"));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not create renditions for image {}", imageName, e);
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Rendition file names keyed by width, or an empty map while they are still being produced
+     * or when the image predates content-addressed uploads.
+     */
+    public Map<Integer, String> renditions(String imageName) {
+        String hash = contentHash(imageName);
+        if (hash == null) {
+            return Map.of();
+        }
+        if (ready.getIfPresent(hash) == null) {
+            //the smallest rendition is written last, so its presence means the set is complete
+            if (!Files.exists(Paths.get(path).resolve(renditionName(hash, widths[0])))) {
+                return Map.of();
+            }
+            ready.put(hash, Boolean.TRUE);
+        }
+        Map<Integer, String> renditions = new LinkedHashMap<>();
+        for (int width : widths) {
+            renditions.put(width, renditionName(hash, width));
+        }
+        return renditions;
+    }
+
+    public void evict(String imageName) {
+        String hash = contentHash(imageName);
+        if (hash != null) {
+            ready.invalidate(hash);
+        }
+    }
+
+    private void render(Path original, String hash) throws IOException {
+        BufferedImage image = decode(original, widths[widths.length - 1]);
+        for (int i = widths.length - 1; i >= 0; i--) {
+            image = scaleToWidth(image, widths[i]);
+            write(image, original.resolveSibling(renditionName(hash, widths[i])));
+        }
+    }
+
+    /**
+     * Decodes the image, letting the reader skip pixels when the source is far larger than needed.
+     */
+    private static BufferedImage decode(Path original, int largestWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + original.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, reader.getWidth(0) / (largestWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        if (targetWidth == source.getWidth() && source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            //JPEG has no alpha channel, so transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(RENDITION_FORMAT).next();
+        Path tempFile = Files.createTempFile(target.getParent(), "rendition-", ".tmp");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(tempFile.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(RENDITION_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    static String renditionName(String hash, int width) {
+        return hash + "-" + width + "." + RENDITION_FORMAT;
+    }
+
+    static String contentHash(String imageName) {
+        if (imageName == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_ADDRESSED.matcher(imageName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.event.StockChangedEvent;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.util.CatalogVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Serialized {@link ProductResponse} pages of the public product listing, bounded by total bytes.
+ * Pages are keyed by the listing ETag they were rendered under, so a body is never served under a newer
+ * catalog or stock version than it was loaded at; catalog writes and stock changes also drop the pages
+ * so superseded versions don't hold on to the byte budget.
+ * Hit ratio is published through the {@code cache.*} metrics and the footprint as {@code product.page.cache.bytes}.
+ */
+@Component
+public class ProductPageCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${product.page-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${product.page-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private Cache<String, byte[]> pages;
+
+    @PostConstruct
+    public void init() {
+        pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] body) -> key.length() + body.length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, pages, "products.pages");
+            Gauge.builder("product.page.cache.bytes", this, ProductPageCache::footprintBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+        });
+    }
+
+    public byte[] getPage(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,
+                          String keyword, String category, Supplier<ProductResponse> loader) {
+        //the version is read before loading, so the body is at least as new as the key says
+        String key = catalogVersion.productsEtag() + "|" + pageNumber + "|" + pageSize + "|" + sortBy + "|" + sortOrder.toLowerCase()
+                + "|" + (keyword != null ? keyword : "") + "|" + (category != null ? category : "");
+        return pages.get(key, k -> serialize(loader.get()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        pages.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        pages.invalidateAll();
+    }
+
+    public long footprintBytes() {
+        return pages.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private byte[] serialize(ProductResponse productResponse) {
+        try {
+            return objectMapper.writeValueAsBytes(productResponse);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product page", e);
+        }
+    }
+}
@@ -5,14 +5,19 @@ import com.ecommerce.project.payload.ProductResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface ProductService {
     ProductDTO addProduct(Long categoryId, ProductDTO product);
 
     ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,String keyword, String category);
 
+    ProductResponse getAllProductsByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, String keyword, String category);
+
     ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    ProductResponse searchProducts(String query, Integer pageNumber, Integer pageSize);
+
     ProductResponse searchProductByKeyword(String keyWord, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
     ProductDTO updateProduct(Long productId, ProductDTO product);
@@ -21,6 +26,8 @@ public interface ProductService {
 
     ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException;
 
+    ProductDTO updateProductImage(Long productId, InputStream image, String contentType, long contentLength) throws IOException;
+
     ProductResponse getAllProductsForAdmin(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
     ProductResponse getAllProductsForSeller(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
@@ -3,34 +3,48 @@ package com.ecommerce.project.service;
 import com.ecommerce.project.Repository.CartRepository;
 import com.ecommerce.project.Repository.CategoryRepository;
 import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.event.ProductCountChangedEvent;
+import com.ecommerce.project.event.ProductPriceChangedEvent;
 import com.ecommerce.project.exceptions.ApiException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Cart;
-import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
 import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.ProductCursor;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 
 @Service
 public class ProductServiceImpl implements ProductService{
 
+    private static final Map<String, String> IMAGE_EXTENSIONS = Map.of(
+            MediaType.IMAGE_JPEG_VALUE, ".jpg",
+            MediaType.IMAGE_PNG_VALUE, ".png",
+            MediaType.IMAGE_GIF_VALUE, ".gif",
+            "image/webp", ".webp");
+
     @Autowired
     private CategoryRepository categoryRepository;
 
@@ -46,6 +60,9 @@ public class ProductServiceImpl implements ProductService{
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private ProductMapper productMapper;
+
     @Autowired
     private FileService fileService;
 
@@ -58,29 +75,41 @@ public class ProductServiceImpl implements ProductService{
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private ProductImagePipeline productImagePipeline;
+
+    @Autowired
+    private ImageUploadLimiter imageUploadLimiter;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public ProductDTO addProduct(Long categoryId, ProductDTO productDTO){
-        Category category = categoryRepository.findById(categoryId)
+        categoryCache.findById(categoryId)
                 .orElseThrow(()->new ResourceNotFoundException("Category","categoryId", categoryId));
 
-        boolean isProductNotPresent = true;
-        List<Product>products = category.getProducts();
-        for (Product value : products) {
-            if (value.getProductName().equals(productDTO.getProductName())) {
-                isProductNotPresent = false;
-                break;
-            }
-        }
+        boolean isProductNotPresent = !productRepository
+                .existsByCategoryCategoryIdAndProductName(categoryId, productDTO.getProductName());
 
         if(isProductNotPresent) {
             Product product = modelMapper.map(productDTO, Product.class);
             product.setImage("default.png");
-            product.setCategory(category);
+            product.setCategory(categoryRepository.getReferenceById(categoryId));
             product.setUser(authUtil.loggedInUser());
             double specialPrice = product.getPrice() - (product.getDiscount() * 0.01) * product.getPrice();
             product.setSpecialPrice(specialPrice);
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct, ProductDTO.class);
+            productSearchIndex.index(savedProduct);
+            eventPublisher.publishEvent(new ProductCountChangedEvent(1));
+            eventPublisher.publishEvent(new CatalogChangedEvent("product added"));
+            return productMapper.toDTO(savedProduct);
         }
         else {
             throw new ApiException("Product already exists!!!");
@@ -94,27 +123,14 @@ public class ProductServiceImpl implements ProductService{
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
-        Specification<Product>spec = Specification.where(null);
-        if(keyword!=null && !keyword.isEmpty()){
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")), "%" + keyword.toLowerCase() + "%"));
-        }
-
-        if(category!=null && !category.isEmpty()){
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(root.get("category").get("categoryName"), category));
-        }
+        Specification<Product>spec = productFilter(keyword, category);
 
         Page<Product>pageProducts = productRepository.findAll(spec,pageDetails);
 
         List<Product>productList = pageProducts.getContent();
 
         List<ProductDTO>productDTOS = productList.stream().
-                map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageUrl(product.getImage()));
-                    return productDTO;
-                })
+                map(product -> withImageUrls(productMapper.toDTO(product)))
                 .toList();
 
         ProductResponse productResponse = new ProductResponse();
@@ -127,28 +143,81 @@ public class ProductServiceImpl implements ProductService{
         return productResponse;
     }
 
+    @Override
+    public ProductResponse getAllProductsByCursor(String cursor, Integer pageSize, String sortBy, String sortOrder, String keyword, String category) {
+        if(pageSize == null || pageSize < 1){
+            throw new ApiException("pageSize must be at least 1");
+        }
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = ProductCursor.sort(sortBy, direction);
+
+        Specification<Product>spec = productFilter(keyword, category);
+        if(cursor!=null && !cursor.isEmpty()){
+            spec = spec.and(ProductCursor.decode(cursor, sortBy, direction).toSpecification());
+        }
+
+        //Fetch one extra row to know whether another page exists, without a count query
+        List<Product>products = productRepository.findBy(spec, query -> query.sortBy(sort).limit(pageSize + 1).all());
+        boolean lastPage = products.size() <= pageSize;
+        if(!lastPage){
+            products = products.subList(0, pageSize);
+        }
+
+        List<ProductDTO>productDTOS = products.stream()
+                .map(product -> withImageUrls(productMapper.toDTO(product)))
+                .toList();
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(productDTOS);
+        productResponse.setPageSize(pageSize);
+        productResponse.setLastPage(lastPage);
+        if(!lastPage && !products.isEmpty()){
+            productResponse.setNextCursor(ProductCursor.after(products.get(products.size() - 1), sortBy, direction).encode());
+        }
+        return productResponse;
+    }
+
+    private Specification<Product> productFilter(String keyword, String category){
+        Specification<Product>spec = Specification.where(null);
+        if(keyword!=null && !keyword.isEmpty()){
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")), "%" + keyword.toLowerCase() + "%"));
+        }
+
+        if(category!=null && !category.isEmpty()){
+            spec = spec.and((root, query, criteriaBuilder) ->
+                    criteriaBuilder.like(root.get("category").get("categoryName"), category));
+        }
+        return spec;
+    }
+
+    private ProductDTO withImageUrls(ProductDTO productDTO){
+        Map<Integer, String>renditions = new LinkedHashMap<>();
+        productImagePipeline.renditions(productDTO.getImage())
+                .forEach((width, fileName) -> renditions.put(width, constructImageUrl(fileName)));
+        productDTO.setImages(renditions);
+        productDTO.setImage(constructImageUrl(productDTO.getImage()));
+        return productDTO;
+    }
+
     private String constructImageUrl(String imageName){
         return imageBaseUrl.endsWith("/") ? imageBaseUrl+imageName : imageBaseUrl+ "/" +imageName;
     }
 
     @Override
     public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Category category = categoryRepository.findById(categoryId)
+        CategoryDTO category = categoryCache.findById(categoryId)
                 .orElseThrow(()->new ResourceNotFoundException("Category","categoryId", categoryId));
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product>pageProducts = productRepository.findByCategoryOrderByPriceAsc(category,pageDetails);
+        Page<ProductDTO>pageProducts = productRepository.findByCategoryIdAsDTO(category.getCategoryId(), pageDetails);
 
-        List<Product>products = pageProducts.getContent();
+        List<ProductDTO>productDTOS = pageProducts.getContent();
 
-        List<ProductDTO>productDTOS = products.stream().
-                map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
-
-        if(products.isEmpty()) throw new ApiException(category.getCategoryName()+ "category does not have any products");
+        if(productDTOS.isEmpty()) throw new ApiException(category.getCategoryName()+ "category does not have any products");
 
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
@@ -160,6 +229,50 @@ public class ProductServiceImpl implements ProductService{
         return productResponse;
     }
 
+    @Override
+    public ProductResponse searchProducts(String query, Integer pageNumber, Integer pageSize) {
+        if(pageNumber == null || pageNumber < 0){
+            throw new ApiException("pageNumber must not be negative");
+        }
+        if(pageSize == null || pageSize < 1){
+            throw new ApiException("pageSize must be at least 1");
+        }
+        List<Long>matchingIds = productSearchIndex.search(query);
+        if(!matchingIds.isEmpty()){
+            //count and page only products that still exist, and drop any the index missed
+            Set<Long>existingIds = new HashSet<>(productRepository.findExistingProductIds(matchingIds));
+            if(existingIds.size() < matchingIds.size()){
+                matchingIds.stream().filter(id -> !existingIds.contains(id)).forEach(productSearchIndex::remove);
+                matchingIds = matchingIds.stream().filter(existingIds::contains).toList();
+            }
+        }
+
+        int fromIndex = (int) Math.min((long) pageNumber * pageSize, matchingIds.size());
+        int toIndex = Math.min(fromIndex + pageSize, matchingIds.size());
+        List<Long>pageIds = matchingIds.subList(fromIndex, toIndex);
+
+        //findAllById does not keep the order of the ids, so restore the relevance ranking
+        Map<Long, Product>productsById = new HashMap<>();
+        productRepository.findAllById(pageIds).forEach(product -> productsById.put(product.getProductId(), product));
+
+        List<ProductDTO>productDTOS = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(product -> withImageUrls(productMapper.toDTO(product)))
+                .toList();
+
+        int totalPages = (matchingIds.size() + pageSize - 1) / pageSize;
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(productDTOS);
+        productResponse.setPageNumber(pageNumber);
+        productResponse.setPageSize(pageSize);
+        productResponse.setTotalElements((long) matchingIds.size());
+        productResponse.setTotalPages(totalPages);
+        productResponse.setLastPage(pageNumber >= totalPages - 1);
+        return productResponse;
+    }
+
     @Override
     public ProductResponse searchProductByKeyword(String keyWord, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
@@ -174,7 +287,7 @@ public class ProductServiceImpl implements ProductService{
         List<Product>products = pageProducts.getContent();
 
         List<ProductDTO>productDTOS = products.stream().
-                map(product -> modelMapper.map(product, ProductDTO.class))
+                map(product -> productMapper.toDTO(product))
                 .toList();
 
         if(products.isEmpty()) throw new ApiException("Products not found with keyword: "+ keyWord);
@@ -196,6 +309,7 @@ public class ProductServiceImpl implements ProductService{
                 .orElseThrow(()->new ResourceNotFoundException("Product", "productId", productId));
 
         Product product = modelMapper.map(productDTO, Product.class);
+        boolean priceChanged = productFromDB.getSpecialPrice() != product.getSpecialPrice();
 
         //update the product info with user shared with one in request body
         productFromDB.setProductName(product.getProductName());
@@ -207,20 +321,14 @@ public class ProductServiceImpl implements ProductService{
 
         //save it to db
         Product savedProduct = productRepository.save(productFromDB);
+        productSearchIndex.index(savedProduct);
+        eventPublisher.publishEvent(new CatalogChangedEvent("product updated"));
+        //carts holding the product are repriced in the background once this commits
+        if (priceChanged) {
+            eventPublisher.publishEvent(new ProductPriceChangedEvent(productId));
+        }
 
-        List<Cart>carts = cartRepository.findCartsByProductId(productId);
-
-        List<CartDTO> cartDTOS  = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-            List<ProductDTO>products = cart.getCartItems().stream()
-                    .map(p->modelMapper.map(p.getProduct(), ProductDTO.class)).toList();
-            cartDTO.setProducts(products);
-            return cartDTO;
-        }).toList();
-
-        cartDTOS.forEach(cart -> cartService.updateProductInCart(cart.getCartId(), productId));
-
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        return productMapper.toDTO(savedProduct);
     }
 
     @Override
@@ -232,7 +340,10 @@ public class ProductServiceImpl implements ProductService{
         carts.forEach(cart -> cartService.deleteProductFromCart(cart.getCartId(), productId));
 
         productRepository.delete(product);
-        return modelMapper.map(product, ProductDTO.class);
+        productSearchIndex.remove(productId);
+        eventPublisher.publishEvent(new ProductCountChangedEvent(-1));
+        eventPublisher.publishEvent(new CatalogChangedEvent("product deleted"));
+        return productMapper.toDTO(product);
     }
 
     @Override
@@ -240,9 +351,40 @@ public class ProductServiceImpl implements ProductService{
         Product productFromDB = productRepository.findById(productId)
                 .orElseThrow(()->new ResourceNotFoundException("Product", "productId", productId));
         String fileName = fileService.uploadImage(path,image);
+        return replaceImage(productFromDB, fileName);
+    }
+
+    @Override
+    public ProductDTO updateProductImage(Long productId, InputStream image, String contentType, long contentLength) throws IOException {
+        String extension = imageExtension(contentType);
+        if(extension == null) throw new ApiException("Unsupported image type: " + contentType);
+
+        Product productFromDB = productRepository.findById(productId)
+                .orElseThrow(()->new ResourceNotFoundException("Product", "productId", productId));
+
+        //Reserve the bytes before reading the body, so oversized or excess uploads are refused without receiving them
+        try (ImageUploadLimiter.Permit permit = imageUploadLimiter.reserve(contentLength)) {
+            String fileName = fileService.uploadImage(path, image, extension, imageUploadLimiter.maxBytes());
+            return replaceImage(productFromDB, fileName);
+        }
+    }
+
+    private static String imageExtension(String contentType){
+        if(contentType == null) return null;
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return IMAGE_EXTENSIONS.get(mediaType.getType() + "/" + mediaType.getSubtype());
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private ProductDTO replaceImage(Product productFromDB, String fileName){
         productFromDB.setImage(fileName);
         Product updatedProduct = productRepository.save(productFromDB);
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        productImagePipeline.submit(fileName);
+        eventPublisher.publishEvent(new CatalogChangedEvent("product image updated"));
+        return productMapper.toDTO(updatedProduct);
     }
 
     @Override
@@ -251,17 +393,10 @@ public class ProductServiceImpl implements ProductService{
                 ? Sort.by(sortBy).ascending()
                 :Sort.by(sortBy).descending();
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product>pageProducts = productRepository.findAll(pageDetails);
+        Page<ProductDTO>pageProducts = productRepository.findAllAsDTO(pageDetails);
 
-        List<Product>products = pageProducts.getContent();
-
-        List<ProductDTO>productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageUrl(product.getImage()));
-                    return productDTO;
-                })
-                .toList();
+        List<ProductDTO>productDTOS = pageProducts.getContent();
+        productDTOS.forEach(this::withImageUrls);
 
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
@@ -283,17 +418,10 @@ public class ProductServiceImpl implements ProductService{
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
         User user = authUtil.loggedInUser();
-        Page<Product> pageProducts = productRepository.findByUser(user, pageDetails);
-
-        List<Product> products = pageProducts.getContent();
+        Page<ProductDTO> pageProducts = productRepository.findByUserAsDTO(user, pageDetails);
 
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> {
-                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                    productDTO.setImage(constructImageUrl(product.getImage()));
-                    return productDTO;
-                })
-                .toList();
+        List<ProductDTO> productDTOS = pageProducts.getContent();
+        productDTOS.forEach(this::withImageUrls);
 
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
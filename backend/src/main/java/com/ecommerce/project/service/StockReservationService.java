@@ -0,0 +1,11 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Order;
+
+import java.util.Map;
+
+public interface StockReservationService {
+    void reserve(Map<Long, Integer> quantitiesByProductId);
+
+    void release(Order order);
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.event.StockChangedEvent;
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Stock is reserved with a conditional decrement, so two checkouts can never both take the last unit.
+ * A reservation is committed together with the surrounding order transaction and rolled back with it;
+ * {@link #release(Order)} returns the stock of an order that is cancelled later on.
+ */
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Locks the product rows in id order, then decrements every product of the order in a single statement:
+     * {@code quantity = quantity - CASE productId ... END WHERE productId IN (...) AND quantity >= CASE ...}.
+     * The update alone locks rows in whatever order the plan visits them, which can deadlock two overlapping carts.
+     * If fewer rows are updated than requested, some product ran out and the transaction is rolled back.
+     */
+    @Override
+    @Transactional
+    public void reserve(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return;
+        }
+
+        productRepository.lockForStockUpdate(quantitiesByProductId.keySet());
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = criteriaBuilder.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+
+        CriteriaBuilder.SimpleCase<Long, Integer> requested = criteriaBuilder.selectCase(root.get("productId"));
+        new TreeMap<>(quantitiesByProductId).forEach(requested::when);
+        requested.otherwise(0);
+
+        update.set(root.<Integer>get("quantity"), criteriaBuilder.diff(root.get("quantity"), requested))
+                .where(root.get("productId").in(quantitiesByProductId.keySet()),
+                        criteriaBuilder.greaterThanOrEqualTo(root.get("quantity"), requested));
+
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated != quantitiesByProductId.size()) {
+            throw new ApiException("Insufficient stock for one or more products in the cart");
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(Set.copyOf(quantitiesByProductId.keySet())));
+    }
+
+    @Override
+    @Transactional
+    public void release(Order order) {
+        Map<Long, Integer> quantitiesByProductId = new TreeMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            quantitiesByProductId.merge(orderItem.getProduct().getProductId(), orderItem.getQuantity(), Integer::sum);
+        }
+        quantitiesByProductId.forEach(productRepository::releaseStock);
+        eventPublisher.publishEvent(new StockChangedEvent(Set.copyOf(quantitiesByProductId.keySet())));
+    }
+}
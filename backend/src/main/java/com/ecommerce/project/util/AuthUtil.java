@@ -2,11 +2,13 @@ package com.ecommerce.project.util;
 
 import com.ecommerce.project.Repository.UserRepository;
 import com.ecommerce.project.model.User;
+import com.ecommerce.project.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
 
 
 @Component
@@ -15,31 +17,52 @@ public class AuthUtil {
         @Autowired
         UserRepository userRepository;
 
-        public String loggedInEmail(){
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = userRepository.findByUserName(authentication.getName())
-                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        @Autowired
+        CurrentUserContext currentUserContext;
 
-            return user.getEmail();
+        public String loggedInEmail(){
+            UserDetailsImpl principal = loggedInPrincipal();
+            if (principal != null && principal.getEmail() != null) {
+                return principal.getEmail();
+            }
+            return loggedInUser().getEmail();
         }
 
         public Long loggedInUserId(){
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = userRepository.findByUserName(authentication.getName())
-                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
-            return user.getUserId();
+            UserDetailsImpl principal = loggedInPrincipal();
+            if (principal != null && principal.getId() != null) {
+                return principal.getId();
+            }
+            return loggedInUser().getUserId();
         }
 
         public User loggedInUser(){
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (RequestContextHolder.getRequestAttributes() == null) {
+                return findLoggedInUser();
+            }
 
-            User user = userRepository.findByUserName(authentication.getName())
-                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+            User user = currentUserContext.getUser();
+            if (user == null) {
+                user = findLoggedInUser();
+                currentUserContext.setUser(user);
+            }
             return user;
+        }
 
+        private UserDetailsImpl loggedInPrincipal(){
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl principal) {
+                return principal;
+            }
+            return null;
         }
 
+        private User findLoggedInUser(){
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-}
+            return userRepository.findByUserName(authentication.getName())
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        }
 
+
+}
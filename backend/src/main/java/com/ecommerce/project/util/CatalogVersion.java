@@ -0,0 +1,46 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.event.StockChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the ETags of the public catalog endpoints.
+ * Catalog writes bump the catalog version; checkouts and cancellations only bump the stock version,
+ * which matters for product listings but not for categories. Both start from the startup time so
+ * ETags handed out before a restart never match again.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong stockVersion = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModified = System.currentTimeMillis();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        catalogVersion.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        stockVersion.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    public String categoriesEtag() {
+        return "\"c" + catalogVersion.get() + "\"";
+    }
+
+    public String productsEtag() {
+        return "\"c" + catalogVersion.get() + "-s" + stockVersion.get() + "\"";
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+}
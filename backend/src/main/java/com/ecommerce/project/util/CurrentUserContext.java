@@ -0,0 +1,18 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.model.User;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Holds the logged-in {@link User} once it has been loaded, so a request resolves it at most once.
+ */
+@Component
+@RequestScope
+@Getter
+@Setter
+public class CurrentUserContext {
+    private User user;
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination over products.
+ * The token carries the sort field, direction, the last sort key value and the
+ * last productId so the next page can be fetched with a seek predicate instead of an OFFSET.
+ */
+public class ProductCursor {
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final Comparable<?> lastValue;
+    private final Long lastProductId;
+
+    private ProductCursor(String sortBy, Sort.Direction direction, Comparable<?> lastValue, Long lastProductId) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.lastValue = lastValue;
+        this.lastProductId = lastProductId;
+    }
+
+    public static ProductCursor after(Product product, String sortBy, Sort.Direction direction) {
+        return new ProductCursor(sortBy, direction, sortKey(product, sortBy), product.getProductId());
+    }
+
+    public static ProductCursor decode(String token, String sortBy, Sort.Direction direction) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid cursor");
+        }
+
+        String[] parts = decoded.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new ApiException("Invalid cursor");
+        }
+        if (!parts[1].equals(sortBy) || !parts[2].equals(direction.name())) {
+            throw new ApiException("Cursor does not match the requested sort");
+        }
+
+        try {
+            return new ProductCursor(sortBy, direction, parseSortKey(sortBy, parts[3]), Long.parseLong(parts[0]));
+        } catch (NumberFormatException e) {
+            throw new ApiException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = lastProductId + "|" + sortBy + "|" + direction.name() + "|" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Seek predicate: rows strictly after (lastValue, lastProductId) in the requested order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Specification<Product> toSpecification() {
+        return (root, query, criteriaBuilder) -> {
+            Comparable value = lastValue;
+            boolean asc = direction.isAscending();
+            if (sortBy.equals("productId")) {
+                return asc
+                        ? criteriaBuilder.greaterThan(root.get("productId"), lastProductId)
+                        : criteriaBuilder.lessThan(root.get("productId"), lastProductId);
+            }
+            return criteriaBuilder.or(
+                    asc ? criteriaBuilder.greaterThan(root.get(sortBy), value)
+                            : criteriaBuilder.lessThan(root.get(sortBy), value),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get(sortBy), value),
+                            asc ? criteriaBuilder.greaterThan(root.get("productId"), lastProductId)
+                                    : criteriaBuilder.lessThan(root.get("productId"), lastProductId)));
+        };
+    }
+
+    /**
+     * Sort for a keyset page; productId is always the tie-breaker so the order is total.
+     */
+    public static Sort sort(String sortBy, Sort.Direction direction) {
+        checkSortField(sortBy);
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("productId") ? sort : sort.and(Sort.by(direction, "productId"));
+    }
+
+    private static Comparable<?> sortKey(Product product, String sortBy) {
+        return switch (sortBy) {
+            case "productId" -> product.getProductId();
+            case "productName" -> product.getProductName();
+            case "price" -> product.getPrice();
+            case "discount" -> product.getDiscount();
+            case "specialPrice" -> product.getSpecialPrice();
+            default -> throw new ApiException("Cursor pagination is not supported for sort field: " + sortBy);
+        };
+    }
+
+    private static Comparable<?> parseSortKey(String sortBy, String value) {
+        return switch (sortBy) {
+            case "productId" -> Long.parseLong(value);
+            case "productName" -> value;
+            case "price", "discount", "specialPrice" -> Double.parseDouble(value);
+            default -> throw new ApiException("Cursor pagination is not supported for sort field: " + sortBy);
+        };
+    }
+
+    private static void checkSortField(String sortBy) {
+        switch (sortBy) {
+            case "productId", "productName", "price", "discount", "specialPrice" -> { }
+            default -> throw new ApiException("Cursor pagination is not supported for sort field: " + sortBy);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.project.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the id sequences of tables that used to have identity columns past their existing rows.
+ * {@code ddl-auto=update} creates a missing sequence at 1, so on a database that already has order and cart
+ * items the pooled generator would hand out ids that are taken. Runs once the schema update is done and before
+ * the web server takes requests; sequences that are already ahead are left alone.
+ */
+@Component
+public class SequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAligner.class);
+
+    //Must match the allocationSize of the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private record IdSequence(String sequence, String table, String column) {
+    }
+
+    private static final IdSequence[] SEQUENCES = {
+            new IdSequence("order_item_seq", "order_item", "order_item_id"),
+            new IdSequence("cart_item_seq", "cart_items", "cart_item_id")
+    };
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        for (IdSequence idSequence : SEQUENCES) {
+            long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + idSequence.column() + "), 0) FROM " + idSequence.table(), Long.class);
+            //the pooled optimizer uses the block (value - allocationSize, value]
+            long next = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(idSequence.sequence()), Long.class);
+            if (next - ALLOCATION_SIZE < maxId) {
+                long restart = maxId + ALLOCATION_SIZE + 1;
+                jdbcTemplate.execute("ALTER SEQUENCE " + idSequence.sequence() + " RESTART WITH " + restart);
+                log.info("Restarted {} at {} past the existing {} rows", idSequence.sequence(), restart, idSequence.table());
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.project.Repository;
+
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductRepositoryTests {
+
+    private static final int PRODUCT_COUNT = 100;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+    private Category category;
+    private User seller;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        seller = new User("seller", "seller@example.com", "password");
+        entityManager.persist(seller);
+
+        category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setQuantity(100);
+            product.setPrice(10 + i);
+            product.setSpecialPrice(10 + i);
+            product.setCategory(category);
+            product.setUser(seller);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void catalogProjectionIssuesConstantStatementsRegardlessOfCartActivity() {
+        long withoutCarts = statementsToListProjection();
+
+        addCartActivity(10);
+
+        long withCarts = statementsToListProjection();
+
+        assertThat(withCarts).isEqualTo(withoutCarts);
+        assertThat(withCarts).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void entityListingDoesNotLoadCartItems() {
+        long withoutCarts = statementsToListEntities();
+
+        addCartActivity(10);
+
+        long withCarts = statementsToListEntities();
+
+        assertThat(withCarts).isEqualTo(withoutCarts);
+    }
+
+    private long statementsToListProjection() {
+        entityManager.clear();
+        statistics.clear();
+        Page<ProductDTO> page = productRepository.findAllAsDTO(PageRequest.of(0, PRODUCT_COUNT, Sort.by("productId")));
+        assertThat(page.getContent()).hasSize(PRODUCT_COUNT);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long statementsToListEntities() {
+        entityManager.clear();
+        statistics.clear();
+        Page<Product> page = productRepository.findAll(PageRequest.of(0, PRODUCT_COUNT, Sort.by("productId")));
+        assertThat(page.getContent()).hasSize(PRODUCT_COUNT);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addCartActivity(int carts) {
+        for (int c = 0; c < carts; c++) {
+            User customer = new User("customer" + c, "customer" + c + "@example.com", "password");
+            entityManager.persist(customer);
+
+            Cart cart = new Cart();
+            cart.setUser(customer);
+            entityManager.persist(cart);
+
+            for (Product product : products) {
+                CartItem cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(product);
+                cartItem.setQuantity(1);
+                cartItem.setProductPrice(product.getSpecialPrice());
+                entityManager.persist(cartItem);
+            }
+        }
+        entityManager.flush();
+    }
+}
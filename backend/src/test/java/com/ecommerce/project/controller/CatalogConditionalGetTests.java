@@ -0,0 +1,139 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.event.StockChangedEvent;
+import com.ecommerce.project.payload.CategoryResponse;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductPageCache;
+import com.ecommerce.project.service.ProductService;
+import com.ecommerce.project.util.CatalogVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(classes = {CategoryController.class, ProductController.class, CatalogVersion.class,
+        ProductPageCache.class, CatalogConditionalGetTests.WebConfig.class})
+class CatalogConditionalGetTests {
+
+    @EnableWebMvc
+    static class WebConfig {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @MockitoBean
+    private CategoryService categoryService;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        when(categoryService.getAllCategories(anyInt(), anyInt(), anyString(), anyString()))
+                .thenReturn(new CategoryResponse(List.of(), 0, 10, 0L, 0, true));
+        when(productService.searchByCategory(anyLong(), anyInt(), anyInt(), anyString(), anyString()))
+                .thenReturn(new ProductResponse());
+    }
+
+    @Test
+    void unchangedCategoriesAnswerNotModifiedWithoutCallingTheService() throws Exception {
+        String etag = mockMvc.perform(get("/api/public/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/public/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(categoryService, times(1)).getAllCategories(anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void catalogWriteChangesTheEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/public/categories"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        eventPublisher.publishEvent(new CatalogChangedEvent("category updated"));
+
+        mockMvc.perform(get("/api/public/categories").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void stockChangesOnlyInvalidateProductListings() throws Exception {
+        String categoriesEtag = mockMvc.perform(get("/api/public/categories"))
+                .andReturn().getResponse().getHeader("ETag");
+        String productsEtag = mockMvc.perform(get("/api/public/categories/1/products"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(1L)));
+
+        mockMvc.perform(get("/api/public/categories").header("If-None-Match", categoriesEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/public/categories/1/products").header("If-None-Match", productsEtag))
+                .andExpect(status().isOk());
+        verify(productService, times(2)).searchByCategory(anyLong(), anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void stockChangeServesTheNewListingBodyUnderTheNewEtag() throws Exception {
+        when(productService.getAllProducts(anyInt(), anyInt(), anyString(), anyString(), any(), any()))
+                .thenReturn(listing(5), listing(4));
+        String etag = mockMvc.perform(get("/api/public/products"))
+                .andExpect(jsonPath("$.content[0].quantity").value(5))
+                .andReturn().getResponse().getHeader("ETag");
+
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(1L)));
+
+        mockMvc.perform(get("/api/public/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.content[0].quantity").value(4));
+    }
+
+    private ProductResponse listing(int quantity) {
+        ProductDTO product = new ProductDTO();
+        product.setProductId(1L);
+        product.setProductName("Phone");
+        product.setQuantity(quantity);
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(List.of(product));
+        return productResponse;
+    }
+}
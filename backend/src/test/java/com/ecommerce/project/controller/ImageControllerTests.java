@@ -0,0 +1,149 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.exceptions.MyGlobalExceptionHandler;
+import com.ecommerce.project.service.ImageServer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(classes = {ImageController.class, ImageServer.class, MyGlobalExceptionHandler.class,
+        ImageControllerTests.WebConfig.class})
+class ImageControllerTests {
+
+    private static final String HASHED = "a".repeat(64) + "-160.jpg";
+    private static final String LARGE = "b".repeat(64) + ".png";
+
+    @EnableWebMvc
+    static class WebConfig {
+    }
+
+    @TempDir
+    static Path imageDir;
+
+    private static byte[] small;
+    private static byte[] large;
+
+    @DynamicPropertySource
+    static void imageProperties(DynamicPropertyRegistry registry) {
+        registry.add("project.image", () -> imageDir.toString());
+    }
+
+    @BeforeAll
+    static void writeImages() throws Exception {
+        small = new byte[1000];
+        large = new byte[200_000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+            if (i < small.length) {
+                small[i] = (byte) (i * 7);
+            }
+        }
+        Files.write(imageDir.resolve(HASHED), small);
+        Files.write(imageDir.resolve(LARGE), large);
+        Files.write(imageDir.resolve("default.png"), small);
+    }
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void contentAddressedImagesAreImmutable() throws Exception {
+        mockMvc.perform(get("/images/" + HASHED))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, small.length))
+                .andExpect(content().bytes(small));
+
+        mockMvc.perform(get("/images/default.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"));
+    }
+
+    @Test
+    void byteRangesAreServedFromDiskAndMemory() throws Exception {
+        mockMvc.perform(get("/images/" + LARGE).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + large.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(large, 100, 200)));
+
+        mockMvc.perform(get("/images/" + HASHED).header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 990-999/1000"))
+                .andExpect(content().bytes(Arrays.copyOfRange(small, 990, 1000)));
+
+        mockMvc.perform(get("/images/" + HASHED).header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+
+        mockMvc.perform(get("/images/" + HASHED).header(HttpHeaders.RANGE, "bytes=0-1,5-6"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(small));
+    }
+
+    @Test
+    void headReturnsHeadersWithoutBody() throws Exception {
+        mockMvc.perform(head("/images/" + LARGE))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, large.length))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void largeFilesAreHandedToSendfileWhenSupported() throws Exception {
+        MvcResult result = mockMvc.perform(get("/images/" + LARGE)
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.RANGE, "bytes=1000-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(new byte[0]))
+                .andReturn();
+
+        assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(imageDir.resolve(LARGE).toAbsolutePath().normalize().toString());
+        assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(1000L);
+        assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo((long) large.length);
+    }
+
+    @Test
+    void unchangedImagesAnswerNotModified() throws Exception {
+        long lastModified = Files.getLastModifiedTime(imageDir.resolve(HASHED)).toMillis();
+        mockMvc.perform(get("/images/" + HASHED).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified + 1000))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void missingAndUnsafeNamesAreNotFound() throws Exception {
+        mockMvc.perform(get("/images/missing.png")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/images/..%2Fsecret.txt")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(classes = {ProductMapperImpl.class, CategoryMapperImpl.class, AddressMapperImpl.class,
+        CartMapperImpl.class, OrderMapperImpl.class, UserMapperImpl.class})
+class DtoMapperTests {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Autowired
+    private ProductMapper productMapper;
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private AddressMapper addressMapper;
+    @Autowired
+    private CartMapper cartMapper;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private UserMapper userMapper;
+
+    private User user;
+    private Category category;
+    private Product product;
+    private Address address;
+    private Cart cart;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("seller1", "seller1@example.com", "secret");
+        user.setUserId(7L);
+        user.setRoles(Set.of(new Role(3, AppRole.ROLE_SELLER)));
+
+        category = new Category(2L, "Electronics", null);
+
+        product = new Product();
+        product.setProductId(11L);
+        product.setProductName("Headphones");
+        product.setDescription("Noise cancelling");
+        product.setImage("abc.png");
+        product.setQuantity(5);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setCategory(category);
+        product.setUser(user);
+
+        address = new Address("Main Street", "Tower One", "Springfield", "US", "Illinois", "62701");
+        address.setAddressId(4L);
+        address.setUser(user);
+        user.getAddresses().add(address);
+
+        cart = new Cart();
+        cart.setCartId(3L);
+        cart.setUser(user);
+        CartItem cartItem = new CartItem(21L, cart, product, 2, 10.0, 90.0);
+        cart.getCartItems().add(cartItem);
+        user.setCart(cart);
+
+        order = new Order();
+        order.setOrderId(31L);
+        order.setEmail("buyer@example.com");
+        order.setOrderDate(LocalDate.of(2024, 5, 1));
+        order.setTotalAmount(180.0);
+        order.setOrderStatus("Accepted!!");
+        order.setAddress(address);
+        Payment payment = new Payment("card", "pg-1", "succeeded", "ok", "Stripe");
+        payment.setPaymentId(41L);
+        payment.setOrder(order);
+        order.setPayment(payment);
+        order.getOrderItems().add(new OrderItem(51L, product, order, 2, 90.0, 90.0));
+    }
+
+    @Test
+    void productMatchesModelMapper() throws Exception {
+        assertSameJson(modelMapper.map(product, ProductDTO.class), productMapper.toDTO(product));
+    }
+
+    @Test
+    void categoryMatchesModelMapper() throws Exception {
+        assertSameJson(modelMapper.map(category, CategoryDTO.class), categoryMapper.toDTO(category));
+    }
+
+    @Test
+    void addressMatchesModelMapper() throws Exception {
+        assertSameJson(modelMapper.map(address, AddressDTO.class), addressMapper.toDTO(address));
+    }
+
+    @Test
+    void cartMatchesModelMapper() throws Exception {
+        assertSameJson(modelMapper.map(cart, CartDTO.class), cartMapper.toDTO(cart));
+    }
+
+    @Test
+    void orderMatchesModelMapper() throws Exception {
+        assertSameJson(modelMapper.map(order, OrderDTO.class), orderMapper.toDTO(order));
+        assertSameJson(modelMapper.map(order.getOrderItems().get(0), OrderItemDTO.class),
+                orderMapper.toDTO(order.getOrderItems().get(0)));
+    }
+
+    @Test
+    void userMatchesModelMapper() throws Exception {
+        assertSameJson(modelMapper.map(user, UserDTO.class), userMapper.toDTO(user));
+    }
+
+    @Test
+    void emptyOrderItemsMatchModelMapper() throws Exception {
+        order.setOrderItems(List.of());
+        assertSameJson(modelMapper.map(order, OrderDTO.class), orderMapper.toDTO(order));
+    }
+
+    private void assertSameJson(Object expected, Object actual) throws Exception {
+        assertThat(objectMapper.writeValueAsString(actual)).isEqualTo(objectMapper.writeValueAsString(expected));
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.project.security.jwt;
+
+import com.ecommerce.project.security.service.UserDetailsImpl;
+import com.ecommerce.project.security.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig(classes = {AuthTokenFilter.class, JwtUtils.class, JwtDenyList.class})
+@TestPropertySource(properties = {
+        "spring.app.jwtSecret=mySecretKey123912738aopsgjnspkmndfsopkvajoirjg94gf2opfng2moknm",
+        "spring.app.jwtExpirationMs=3000000",
+        "spring.ecom.app.jwtCookieName=springBootEcom",
+        "spring.app.jwtStatelessPrincipal=true"
+})
+class AuthTokenFilterTests {
+
+    @Autowired
+    private AuthTokenFilter authTokenFilter;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JwtDenyList jwtDenyList;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deniedTokenIsRejectedEvenWhileItsClaimsAreCached() throws Exception {
+        String token = jwtUtils.generateTokenFromUserDetails(customer());
+        assertThat(authenticate(token)).isNotNull();
+
+        jwtDenyList.deny(jwtUtils.parseVerifiedClaims(token));
+
+        assertThat(jwtUtils.parseVerifiedClaims(token)).isNotNull();
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void expiredTokenIsNeverServedFromTheCache() throws Exception {
+        JwtUtils shortLived = new JwtUtils();
+        ReflectionTestUtils.setField(shortLived, "jwtSecret", "mySecretKey123912738aopsgjnspkmndfsopkvajoirjg94gf2opfng2moknm");
+        ReflectionTestUtils.setField(shortLived, "jwtExpirationMs", 1500);
+        ReflectionTestUtils.setField(shortLived, "jwtCookie", "springBootEcom");
+        ReflectionTestUtils.setField(shortLived, "jwtCacheSize", 100);
+        ReflectionTestUtils.setField(shortLived, "meterRegistry",
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        shortLived.init();
+        String token = shortLived.generateTokenFromUserDetails(customer());
+        assertThat(shortLived.validateJwtToken(token)).isTrue();
+
+        //exp is stored in whole seconds, so the token is gone within two seconds
+        Thread.sleep(2100);
+
+        assertThat(shortLived.validateJwtToken(token)).isFalse();
+        assertThat(shortLived.parseVerifiedClaims(token)).isNull();
+    }
+
+    @Test
+    void statelessPrincipalKeepsTheRolesOfTheTokenUntilItExpires() throws Exception {
+        String token = jwtUtils.generateTokenFromUserDetails(customer());
+        //the user has since been made a seller
+        when(userDetailsService.loadUserByUsername("buyer")).thenReturn(new UserDetailsImpl(1L, "buyer",
+                "buyer@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_SELLER"))));
+
+        assertThat(authenticate(token).getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+
+        ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", false);
+        try {
+            assertThat(authenticate(token).getAuthorities()).extracting(Object::toString).containsExactly("ROLE_SELLER");
+        } finally {
+            ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", true);
+        }
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/users/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private UserDetailsImpl customer() {
+        return new UserDetailsImpl(1L, "buyer", "buyer@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
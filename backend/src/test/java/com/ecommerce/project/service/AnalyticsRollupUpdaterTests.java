@@ -0,0 +1,291 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.AnalyticsRollupRepository;
+import com.ecommerce.project.Repository.CategoryRepository;
+import com.ecommerce.project.Repository.OrderRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.Repository.SalesRollupRepository;
+import com.ecommerce.project.config.AppConfig;
+import com.ecommerce.project.event.OrderPlacedEvent;
+import com.ecommerce.project.event.ProductCountChangedEvent;
+import com.ecommerce.project.mapper.CategoryMapperImpl;
+import com.ecommerce.project.model.AnalyticsRollup;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.RollupGranularity;
+import com.ecommerce.project.payload.AnalyticsResponse;
+import com.ecommerce.project.payload.SalesSeriesPoint;
+import com.ecommerce.project.payload.SalesSeriesResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AnalyticsRollupUpdater.class, AnalyticsServiceImpl.class, CategoryCache.class, CategoryMapperImpl.class,
+        CategoryServiceImplementation.class, ProductSearchIndex.class, AppConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AnalyticsRollupUpdaterTests {
+
+    private static final LocalDateTime PLACED_AT = LocalDateTime.of(2026, 3, 14, 15, 42);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AnalyticsRollupUpdater rollupUpdater;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() {
+        //start from a reconciled empty state, whatever earlier tests left the updater with
+        rollupUpdater.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        salesRollupRepository.deleteAll();
+        categoryRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void committedOrdersAndProductsIncrementTheirBuckets() {
+        eventPublisher.publishEvent(new OrderPlacedEvent(1L, 100.0, PLACED_AT, List.of()));
+        eventPublisher.publishEvent(new OrderPlacedEvent(2L, 50.0, PLACED_AT.plusMinutes(10), List.of()));
+        eventPublisher.publishEvent(new OrderPlacedEvent(3L, 25.0, PLACED_AT.plusHours(1), List.of()));
+        eventPublisher.publishEvent(new ProductCountChangedEvent(2));
+        eventPublisher.publishEvent(new ProductCountChangedEvent(-1));
+        rollupUpdater.flush().join();
+
+        AnalyticsRollup hour = rollup(RollupGranularity.HOUR, LocalDateTime.of(2026, 3, 14, 15, 0));
+        AnalyticsRollup day = rollup(RollupGranularity.DAY, LocalDateTime.of(2026, 3, 14, 0, 0));
+        AnalyticsRollup total = rollup(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET);
+
+        assertThat(hour.getOrderCount()).isEqualTo(2);
+        assertThat(hour.getRevenue()).isEqualTo(150.0);
+        assertThat(day.getOrderCount()).isEqualTo(3);
+        assertThat(day.getRevenue()).isEqualTo(175.0);
+        assertThat(total.getOrderCount()).isEqualTo(3);
+        assertThat(total.getProductCount()).isEqualTo(1);
+
+        AnalyticsResponse response = analyticsService.getAnalytics();
+        assertThat(response.getTotalOrders()).isEqualTo("3");
+        assertThat(response.getTotalRevenue()).isEqualTo("175.0");
+        assertThat(response.getProductCount()).isEqualTo("1");
+    }
+
+    @Test
+    void reconciliationCorrectsDriftAgainstBaseTables() {
+        LocalDate today = LocalDate.now();
+        saveOrder(today, 40.0);
+        saveOrder(today, 60.0);
+        saveProduct();
+
+        // Only one of the two orders made it into the rollups
+        eventPublisher.publishEvent(new OrderPlacedEvent(1L, 40.0, today.atTime(9, 0), List.of()));
+
+        rollupUpdater.reconcile();
+
+        AnalyticsRollup day = rollup(RollupGranularity.DAY, today.atStartOfDay());
+        AnalyticsRollup total = rollup(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET);
+        assertThat(day.getOrderCount()).isEqualTo(2);
+        assertThat(day.getRevenue()).isEqualTo(100.0);
+        assertThat(total.getOrderCount()).isEqualTo(2);
+        assertThat(total.getRevenue()).isEqualTo(100.0);
+        assertThat(total.getProductCount()).isEqualTo(1);
+    }
+
+    @Test
+    void salesSeriesBucketsByWeekAndGroupsByCategory() {
+        Category phones = saveCategory("Phones");
+        Category laptops = saveCategory("Laptops");
+        LocalDateTime monday = LocalDateTime.of(2026, 3, 9, 10, 0);
+
+        eventPublisher.publishEvent(new OrderPlacedEvent(1L, 300.0, monday, List.of(
+                new OrderPlacedEvent.Line(phones.getCategoryId(), 7L, 2, 200.0),
+                new OrderPlacedEvent.Line(laptops.getCategoryId(), 7L, 1, 100.0))));
+        eventPublisher.publishEvent(new OrderPlacedEvent(2L, 50.0, monday.plusDays(3), List.of(
+                new OrderPlacedEvent.Line(phones.getCategoryId(), 8L, 1, 50.0))));
+        eventPublisher.publishEvent(new OrderPlacedEvent(3L, 80.0, monday.plusDays(7), List.of(
+                new OrderPlacedEvent.Line(phones.getCategoryId(), 7L, 4, 80.0))));
+        rollupUpdater.flush().join();
+
+        SalesSeriesResponse byCategory = analyticsService.getSalesSeries(
+                monday.toLocalDate(), monday.toLocalDate().plusDays(13), "week", "category");
+
+        assertThat(byCategory.getPoints())
+                .extracting(SalesSeriesPoint::getBucketStart, SalesSeriesPoint::getGroupName,
+                        SalesSeriesPoint::getRevenue, SalesSeriesPoint::getUnits, SalesSeriesPoint::getOrders)
+                .containsExactly(
+                        tuple(monday.toLocalDate(), "Phones", 250.0, 3L, 2L),
+                        tuple(monday.toLocalDate(), "Laptops", 100.0, 1L, 1L),
+                        tuple(monday.toLocalDate().plusDays(7), "Phones", 80.0, 4L, 1L));
+
+        SalesSeriesResponse total = analyticsService.getSalesSeries(
+                monday.toLocalDate(), monday.toLocalDate().plusDays(13), "month", "none");
+
+        assertThat(total.getPoints())
+                .singleElement()
+                .satisfies(point -> {
+                    assertThat(point.getRevenue()).isEqualTo(430.0);
+                    assertThat(point.getUnits()).isEqualTo(8);
+                    assertThat(point.getOrders()).isEqualTo(3);
+                });
+    }
+
+    @Test
+    void burstOfOrdersIsWrittenOffTheRequestThreadAsOneUpdatePerRow() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CountDownLatch release = new CountDownLatch(1);
+        Executor executor = (Executor) ReflectionTestUtils.getField(rollupUpdater, "executor");
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        statistics.clear();
+
+        for (int i = 0; i < 20; i++) {
+            eventPublisher.publishEvent(new OrderPlacedEvent(i + 1L, 10.0, PLACED_AT, List.of(
+                    new OrderPlacedEvent.Line(1L, 7L, 1, 10.0))));
+        }
+        //nothing has touched the database while the updater is busy
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        release.countDown();
+        rollupUpdater.flush().join();
+
+        //hour, day, total and sales row: one update each, plus the insert creating it
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(8);
+        AnalyticsRollup total = rollup(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET);
+        assertThat(total.getOrderCount()).isEqualTo(20);
+        assertThat(total.getRevenue()).isEqualTo(200.0);
+        assertThat(rollup(RollupGranularity.HOUR, LocalDateTime.of(2026, 3, 14, 15, 0)).getOrderCount()).isEqualTo(20);
+        assertThat(salesRollupRepository.findAll())
+                .singleElement()
+                .satisfies(sales -> {
+                    assertThat(sales.getOrderCount()).isEqualTo(20);
+                    assertThat(sales.getUnits()).isEqualTo(20);
+                    assertThat(sales.getRevenue()).isEqualTo(200.0);
+                });
+    }
+
+    @Test
+    void orderCountedByReconciliationIsNotAddedAgainByItsEvent() {
+        LocalDate today = LocalDate.now();
+        Order order = saveOrder(today, 40.0);
+        rollupUpdater.reconcile();
+
+        //the order's event is only applied after the reconciliation has read the base tables
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getOrderId(), 40.0, today.atTime(9, 30), List.of(
+                new OrderPlacedEvent.Line(1L, 7L, 1, 40.0))));
+        rollupUpdater.flush().join();
+
+        AnalyticsRollup total = rollup(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET);
+        assertThat(total.getOrderCount()).isEqualTo(1);
+        assertThat(total.getRevenue()).isEqualTo(40.0);
+        assertThat(rollup(RollupGranularity.DAY, today.atStartOfDay()).getOrderCount()).isEqualTo(1);
+        //hours are never rebuilt, so the event still feeds them
+        assertThat(rollup(RollupGranularity.HOUR, today.atTime(9, 0)).getOrderCount()).isEqualTo(1);
+        //the order has no items, so the rebuild left no sales and the event must not add any
+        assertThat(salesRollupRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void deletingACategoryTakesItsProductsOffTheProductCount() {
+        Category phones = saveCategory("Phones");
+        saveProduct(phones);
+        saveProduct(phones);
+        saveProduct();
+        rollupUpdater.reconcile();
+        assertThat(rollup(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET).getProductCount()).isEqualTo(3);
+
+        categoryService.deleteCategory(phones.getCategoryId());
+        rollupUpdater.flush().join();
+
+        assertThat(rollup(RollupGranularity.TOTAL, AnalyticsRollup.TOTAL_BUCKET).getProductCount()).isEqualTo(1);
+        assertThat(productRepository.count()).isEqualTo(1);
+    }
+
+    private Category saveCategory(String name) {
+        Category category = new Category();
+        category.setCategoryName(name);
+        return categoryRepository.save(category);
+    }
+
+    private AnalyticsRollup rollup(RollupGranularity granularity, LocalDateTime bucketStart) {
+        return rollupRepository.findByGranularityAndBucketStart(granularity, bucketStart).orElseThrow();
+    }
+
+    private Order saveOrder(LocalDate orderDate, double totalAmount) {
+        Order order = new Order();
+        order.setEmail("buyer@example.com");
+        order.setOrderDate(orderDate);
+        order.setTotalAmount(totalAmount);
+        order.setOrderStatus("Accepted!!");
+        return orderRepository.save(order);
+    }
+
+    private void saveProduct() {
+        saveProduct(null);
+    }
+
+    private void saveProduct(Category category) {
+        Product product = new Product();
+        product.setCategory(category);
+        product.setProductName("Rollup product");
+        product.setDescription("Rollup description");
+        product.setQuantity(1);
+        productRepository.save(product);
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.CartItemRepository;
+import com.ecommerce.project.Repository.CartRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.Repository.UserRepository;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "cart.price-propagation.batch-size=2",
+        "cart.write-behind.enabled=true"
+})
+@Import({CartPriceUpdater.class, CartPricing.class, CartWriteBehindStore.class, ProductMapperImpl.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartPriceUpdaterTests {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("cart.write-behind.journal-dir", () -> journalDir.toString());
+    }
+
+    @Autowired
+    private CartPriceUpdater cartPriceUpdater;
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        cartWriteBehindStore.flushAll();
+        cartItemRepository.deleteAll();
+        cartRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void newPriceReachesEveryCartInBatches() throws Exception {
+        Product repriced = product("Repriced", 10);
+        Product other = product("Other", 5);
+        List<Cart> carts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            carts.add(cart("buyer" + i, repriced, other));
+        }
+        Cart untouched = cart("bystander", other);
+
+        List<Long> cartIds = new ArrayList<>(carts.stream().map(Cart::getCartId).toList());
+        cartIds.add(untouched.getCartId());
+        Map<Long, Long> versions = cartPricing.versions(cartIds);
+        repriced.setSpecialPrice(12);
+        productRepository.save(repriced);
+        int cartsRepriced = cartPriceUpdater.submit(repriced.getProductId()).get(10, TimeUnit.SECONDS);
+
+        assertThat(cartsRepriced).isEqualTo(5);
+        assertThat(cartItemRepository.findAll())
+                .filteredOn(cartItem -> cartItem.getProduct().getProductId().equals(repriced.getProductId()))
+                .hasSize(5)
+                .allSatisfy(cartItem -> assertThat(cartItem.getProductPrice()).isEqualTo(12.0));
+        //cached totals of the repriced carts are invalidated, the others stay valid
+        for (Cart cart : carts) {
+            assertThat(cartPricing.version(cart.getCartId()))
+                    .isGreaterThan(versions.get(cart.getCartId()));
+        }
+        assertThat(cartPricing.version(untouched.getCartId())).isEqualTo(versions.get(untouched.getCartId()));
+        assertThat(meterRegistry.get("cart.price.propagation").timer().count()).isPositive();
+        assertThat(meterRegistry.get("cart.price.propagation.carts").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void propagationIsSkippedWhenCartsAlreadyHoldTheCurrentPrice() throws Exception {
+        Product product = product("Steady", 10);
+        cart("buyer", product);
+
+        assertThat(cartPriceUpdater.submit(product.getProductId()).get(10, TimeUnit.SECONDS)).isZero();
+    }
+
+    @Test
+    void cartsCachedInTheWriteBehindStorePickUpTheNewPrice() throws Exception {
+        Product product = product("Repriced", 10);
+        cart("buyer", product);
+        assertThat(cartWriteBehindStore.updateQuantity("buyer@example.com", product.getProductId(), 1)
+                .getTotalPrice()).isEqualTo(30.0);
+
+        product.setSpecialPrice(12);
+        productRepository.save(product);
+        cartPriceUpdater.submit(product.getProductId()).get(10, TimeUnit.SECONDS);
+
+        //the pending quantity was written and the cart reloaded at the new price
+        assertThat(cartItemRepository.findAll()).singleElement()
+                .satisfies(cartItem -> assertThat(cartItem.getQuantity()).isEqualTo(3));
+        assertThat(cartWriteBehindStore.updateQuantity("buyer@example.com", product.getProductId(), 1)
+                .getTotalPrice()).isEqualTo(48.0);
+        cartWriteBehindStore.flush("buyer@example.com");
+        assertThat(cartItemRepository.findAll()).singleElement()
+                .satisfies(cartItem -> assertThat(cartItem.getProductPrice()).isEqualTo(12.0));
+    }
+
+    private Product product(String name, double specialPrice) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription("Description of " + name);
+        product.setQuantity(100);
+        product.setPrice(specialPrice);
+        product.setSpecialPrice(specialPrice);
+        return productRepository.save(product);
+    }
+
+    private Cart cart(String userName, Product... products) {
+        User customer = userRepository.save(new User(userName, userName + "@example.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(customer);
+        cart = cartRepository.save(cart);
+        for (Product product : products) {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItemRepository.save(cartItem);
+        }
+        return cart;
+    }
+}
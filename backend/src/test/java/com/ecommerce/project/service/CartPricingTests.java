@@ -0,0 +1,78 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.CartItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(classes = CartPricing.class)
+class CartPricingTests {
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Test
+    void totalsAreExactInCents() {
+        List<CartItem> cartItems = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            CartItem cartItem = new CartItem();
+            cartItem.setProductPrice(0.1);
+            cartItem.setQuantity(3);
+            cartItems.add(cartItem);
+        }
+
+        assertThat(CartPricing.total(cartItems)).isEqualTo(300.0);
+        assertThat(CartPricing.total(List.of())).isZero();
+    }
+
+    @Test
+    void cachedTotalIsServedUntilTheLinesChange() {
+        long version = cartPricing.version(1L);
+        assertThat(cartPricing.total(1L, version, new long[]{1999, 500}, new int[]{2, 1})).isEqualTo(44.98);
+
+        //same version: the cached total wins over whatever lines are passed
+        assertThat(cartPricing.total(1L, version, new long[]{1}, new int[]{1})).isEqualTo(44.98);
+
+        cartPricing.linesChanged(1L);
+        long changed = cartPricing.version(1L);
+        assertThat(changed).isGreaterThan(version);
+        assertThat(cartPricing.total(1L, changed, new long[]{1999}, new int[]{1})).isEqualTo(19.99);
+    }
+
+    @Test
+    void totalComputedAtAnOlderVersionDoesNotReplaceANewerOne() {
+        long before = cartPricing.version(2L);
+        cartPricing.linesChanged(2L);
+        long after = cartPricing.version(2L);
+        cartPricing.total(2L, after, new long[]{700}, new int[]{1});
+
+        //a reader that loaded its lines before the change finishes late
+        assertThat(cartPricing.total(2L, before, new long[]{500}, new int[]{1})).isEqualTo(5.0);
+
+        assertThat(cartPricing.total(2L, after, new long[]{1}, new int[]{1})).isEqualTo(7.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictedCartsComeBackUnderANewerVersion() {
+        long version = cartPricing.version(3L);
+        cartPricing.total(3L, version, new long[]{500}, new int[]{1});
+        Cache<Long, ?> carts = (Cache<Long, ?>) ReflectionTestUtils.getField(cartPricing, "carts");
+        //what the size bound does to a cart that has not been read for a while
+        carts.invalidate(3L);
+
+        long reloaded = cartPricing.version(3L);
+        assertThat(reloaded).isGreaterThan(version);
+        //the total from before the eviction can no longer be matched
+        assertThat(cartPricing.total(3L, version, new long[]{900}, new int[]{1})).isEqualTo(9.0);
+        assertThat(cartPricing.total(3L, reloaded, new long[]{700}, new int[]{1})).isEqualTo(7.0);
+        assertThat(cartPricing.total(3L, reloaded, new long[]{1}, new int[]{1})).isEqualTo(7.0);
+    }
+}
@@ -0,0 +1,216 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartItemDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.util.AuthUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "cart.write-behind.enabled=false"
+})
+@Import({CartServiceImpl.class, CartWriteBehindStore.class, CartPricing.class, CartMapperImpl.class,
+        ProductMapperImpl.class})
+class CartServiceTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartService cartService;
+
+    @MockitoBean
+    private AuthUtil authUtil;
+
+    @Test
+    void getCartIssuesOneStatementRegardlessOfCartSize() {
+        Cart small = cartWithLines("small", 1);
+        Cart large = cartWithLines("large", 30);
+        Cart empty = cartWithLines("empty", 0);
+
+        assertThat(statementsToGetCart("small@example.com", small)).isEqualTo(1);
+        assertThat(statementsToGetCart("large@example.com", large)).isEqualTo(1);
+        assertThat(statementsToGetCart("empty@example.com", empty)).isEqualTo(1);
+    }
+
+    @Test
+    void getCartBuildsProductLinesWithCartQuantities() {
+        Cart cart = cartWithLines("buyer", 3);
+        entityManager.clear();
+
+        CartDTO cartDTO = cartService.getCart("buyer@example.com", cart.getCartId());
+
+        assertThat(cartDTO.getCartId()).isEqualTo(cart.getCartId());
+        assertThat(cartDTO.getTotalPrice()).isEqualTo(60.0);
+        assertThat(cartDTO.getProducts())
+                .extracting(ProductDTO::getProductName, ProductDTO::getQuantity, ProductDTO::getSpecialPrice)
+                .containsExactly(
+                        tuple("buyer product 0", 2, 10.0),
+                        tuple("buyer product 1", 2, 10.0),
+                        tuple("buyer product 2", 2, 10.0));
+    }
+
+    @Test
+    void allCartsAreListedInCartIdOrderUpToTheCap() {
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            cartIds.add(cartWithLines("buyer" + i, i % 2).getCartId());
+        }
+        entityManager.clear();
+
+        ReflectionTestUtils.setField(cartService, "maxListedCarts", 3);
+        try {
+            List<CartDTO> carts = cartService.getAllCarts();
+
+            assertThat(carts).extracting(CartDTO::getCartId).containsExactlyElementsOf(cartIds.subList(0, 3));
+            assertThat(carts.get(1).getTotalPrice()).isEqualTo(20.0);
+        } finally {
+            ReflectionTestUtils.setField(cartService, "maxListedCarts", 1000);
+        }
+    }
+
+    @Test
+    void getCartOfAnotherUserIsNotFound() {
+        Cart cart = cartWithLines("buyer", 1);
+        cartWithLines("other", 1);
+
+        assertThatThrownBy(() -> cartService.getCart("other@example.com", cart.getCartId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void syncDiffsAgainstTheExistingCart() {
+        Cart cart = cartWithLines("buyer", 2);
+        CartItem kept = cart.getCartItems().get(1);
+        Product added = product("Added");
+        entityManager.flush();
+        entityManager.clear();
+        when(authUtil.loggedInEmail()).thenReturn("buyer@example.com");
+
+        cartService.createOrUpdateCartWithItems(List.of(
+                cartItem(kept.getProduct().getProductId(), 5),
+                cartItem(added.getProductId(), 1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        Cart synced = entityManager.find(Cart.class, cart.getCartId());
+        assertThat(synced.getCartItems())
+                .extracting(CartItem::getCartItemId, item -> item.getProduct().getProductId(), CartItem::getQuantity)
+                .containsExactlyInAnyOrder(
+                        tuple(kept.getCartItemId(), kept.getProduct().getProductId(), 5),
+                        tuple(synced.getCartItems().stream()
+                                .filter(item -> item.getProduct().getProductId().equals(added.getProductId()))
+                                .findFirst().orElseThrow().getCartItemId(), added.getProductId(), 1));
+    }
+
+    @Test
+    void syncIssuesConstantStatementsRegardlessOfItemCount() {
+        long oneItem = statementsToSync("small", 1);
+        long thirtyItems = statementsToSync("large", 30);
+
+        //cart, product lookup, cart insert and one batched item insert, plus a sequence call whenever an id block runs out
+        assertThat(oneItem).isLessThanOrEqualTo(5);
+        assertThat(thirtyItems).isLessThanOrEqualTo(5);
+    }
+
+    private long statementsToSync(String userName, int items) {
+        User customer = new User(userName, userName + "@example.com", "password");
+        entityManager.persist(customer);
+        List<CartItemDTO> request = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            request.add(cartItem(product(userName + " product " + i).getProductId(), 2));
+        }
+        when(authUtil.loggedInEmail()).thenReturn(customer.getEmail());
+        when(authUtil.loggedInUser()).thenReturn(customer);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        statistics.clear();
+
+        cartService.createOrUpdateCartWithItems(request);
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(entityManager.createQuery("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cart.user = ?1", Long.class)
+                .setParameter(1, customer).getSingleResult()).isEqualTo(items);
+        return statements;
+    }
+
+    private static CartItemDTO cartItem(Long productId, int quantity) {
+        CartItemDTO cartItemDTO = new CartItemDTO();
+        cartItemDTO.setProductId(productId);
+        cartItemDTO.setQuantity(quantity);
+        return cartItemDTO;
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription("Description of " + name);
+        product.setQuantity(100);
+        product.setPrice(10);
+        product.setSpecialPrice(10);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private long statementsToGetCart(String email, Cart cart) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        CartDTO cartDTO = cartService.getCart(email, cart.getCartId());
+
+        assertThat(cartDTO.getProducts()).hasSize(cart.getCartItems().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Cart cartWithLines(String userName, int lines) {
+        User customer = new User(userName, userName + "@example.com", "password");
+        entityManager.persist(customer);
+
+        Cart cart = new Cart();
+        cart.setUser(customer);
+        entityManager.persist(cart);
+
+        for (int i = 0; i < lines; i++) {
+            Product product = product(userName + " product " + i);
+
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItem.setProductPrice(10);
+            entityManager.persist(cartItem);
+            cart.getCartItems().add(cartItem);
+        }
+        entityManager.flush();
+        return cart;
+    }
+}
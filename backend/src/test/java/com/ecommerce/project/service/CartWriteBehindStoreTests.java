@@ -0,0 +1,247 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.CartItemRepository;
+import com.ecommerce.project.Repository.CartRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.Repository.UserRepository;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CartDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "cart.write-behind.enabled=true"
+})
+@Import({CartWriteBehindStore.class, CartPricing.class, ProductMapperImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartWriteBehindStoreTests {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("cart.write-behind.journal-dir", () -> journalDir.toString());
+    }
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Autowired
+    private CartPricing cartPricing;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        cartWriteBehindStore.flush("buyer@example.com");
+        cartItemRepository.deleteAll();
+        cartRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void quantityChangesStayInMemoryUntilTheBatchedFlush() {
+        Cart cart = cartWithLines("buyer", 2);
+        Long first = cart.getCartItems().get(0).getProduct().getProductId();
+        Long second = cart.getCartItems().get(1).getProduct().getProductId();
+        cartWriteBehindStore.updateQuantity("buyer@example.com", first, 1);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        cartWriteBehindStore.updateQuantity("buyer@example.com", first, 1);
+        CartDTO cartDTO = cartWriteBehindStore.updateQuantity("buyer@example.com", second, -1);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cartDTO.getTotalPrice()).isEqualTo(4 * 10 + 10);
+        assertThat(quantities(cart)).containsExactly(2, 2);
+
+        long version = cartPricing.version(cart.getCartId());
+        cartWriteBehindStore.flushAll();
+
+        assertThat(quantities(cart)).containsExactly(4, 1);
+        assertThat(cartPricing.version(cart.getCartId())).isGreaterThan(version);
+    }
+
+    @Test
+    void zeroQuantityDeletesTheLine() {
+        Cart cart = cartWithLines("buyer", 2);
+        Long first = cart.getCartItems().get(0).getProduct().getProductId();
+
+        CartDTO cartDTO = cartWriteBehindStore.updateQuantity("buyer@example.com", first, -2);
+        cartWriteBehindStore.flush("buyer@example.com");
+
+        assertThat(cartDTO.getProducts()).hasSize(1);
+        assertThat(cartDTO.getTotalPrice()).isEqualTo(20.0);
+        assertThat(quantities(cart)).containsExactly(2);
+    }
+
+    @Test
+    void acknowledgedChangesAreReplayedFromTheJournalAfterACrash() throws Exception {
+        Cart cart = cartWithLines("buyer", 1);
+        Long productId = cart.getCartItems().get(0).getProduct().getProductId();
+        cartWriteBehindStore.updateQuantity("buyer@example.com", productId, 3);
+        cartWriteBehindStore.updateQuantity("buyer@example.com", productId, -1);
+
+        //the process dies before the scheduled flush; a fresh instance starts against the same journal
+        Path crashedJournal = Files.createTempDirectory(journalDir, "crashed");
+        try (var files = Files.list(journalDir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.copy(file, crashedJournal.resolve(file.getFileName()));
+            }
+        }
+        restartedAgainst(crashedJournal).init();
+
+        assertThat(quantities(cart)).containsExactly(4);
+        try (var files = Files.list(crashedJournal)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void flushRacingTheScheduledFlushNeverLosesAnUpdate() throws Exception {
+        Cart cart = cartWithLines("buyer", 1);
+        Long productId = cart.getCartItems().get(0).getProduct().getProductId();
+        int rounds = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean clicking = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> scheduler = executor.submit(() -> {
+                start.await();
+                while (clicking.get()) {
+                    cartWriteBehindStore.flushAll();
+                }
+                return null;
+            });
+            Future<?> user = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    cartWriteBehindStore.updateQuantity("buyer@example.com", productId, 1);
+                    if (i % 3 == 0) {
+                        //another cart operation writes and evicts the cart while a scheduled flush may be in flight
+                        cartWriteBehindStore.flush("buyer@example.com");
+                    }
+                }
+                clicking.set(false);
+                return null;
+            });
+            start.countDown();
+            user.get(60, TimeUnit.SECONDS);
+            scheduler.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        cartWriteBehindStore.flush("buyer@example.com");
+
+        assertThat(quantities(cart)).containsExactly(2 + rounds);
+    }
+
+    @Test
+    void replaySkipsChangesAlreadyWrittenBeforeALaterDirectWrite() throws Exception {
+        Cart cart = cartWithLines("buyer", 1);
+        Long productId = cart.getCartItems().get(0).getProduct().getProductId();
+        cartWriteBehindStore.updateQuantity("buyer@example.com", productId, 3);
+        cartWriteBehindStore.flush("buyer@example.com");
+        //e.g. the login cart sync rewrites the line directly
+        jdbcTemplate.update("UPDATE cart_items SET quantity = 9 WHERE cart_id = ?", cart.getCartId());
+
+        Path crashedJournal = Files.createTempDirectory(journalDir, "crashed");
+        try (var files = Files.list(journalDir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.copy(file, crashedJournal.resolve(file.getFileName()));
+            }
+        }
+        restartedAgainst(crashedJournal).init();
+
+        assertThat(quantities(cart)).containsExactly(9);
+    }
+
+    private CartWriteBehindStore restartedAgainst(Path journal) {
+        CartWriteBehindStore restarted = new CartWriteBehindStore();
+        ReflectionTestUtils.setField(restarted, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(restarted, "productMapper", new ProductMapperImpl());
+        ReflectionTestUtils.setField(restarted, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(restarted, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(restarted, "cartPricing", cartPricing);
+        ReflectionTestUtils.setField(restarted, "journalDir", journal.toString());
+        return restarted;
+    }
+
+    private List<Integer> quantities(Cart cart) {
+        return jdbcTemplate.queryForList("SELECT quantity FROM cart_items WHERE cart_id = ? ORDER BY cart_item_id",
+                Integer.class, cart.getCartId());
+    }
+
+    private Cart cartWithLines(String userName, int lines) {
+        User customer = userRepository.save(new User(userName, userName + "@example.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(customer);
+        cart = cartRepository.save(cart);
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setProductName(userName + " product " + i);
+            product.setDescription("Description " + i);
+            product.setQuantity(100);
+            product.setPrice(10);
+            product.setSpecialPrice(10);
+            product = productRepository.save(product);
+
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItem.setProductPrice(10);
+            cart.getCartItems().add(cartItemRepository.save(cartItem));
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.config.AppConfig;
+import com.ecommerce.project.mapper.CategoryMapperImpl;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.CategoryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CategoryServiceImplementation.class, CategoryCache.class, CategoryMapperImpl.class, AppConfig.class,
+        ProductSearchIndex.class, CategoryCacheTests.MetricsConfig.class})
+class CategoryCacheTests {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        categoryCache.evictAll();
+    }
+
+    @Test
+    void repeatedListingIsServedFromCache() {
+        categoryService.createCategory(category("Electronics"));
+        categoryService.getAllCategories(0, 10, "categoryId", "asc");
+
+        double hitsBefore = pageHits();
+        statistics.clear();
+        CategoryResponse cached = categoryService.getAllCategories(0, 10, "categoryId", "asc");
+
+        assertThat(cached.getContent()).extracting(CategoryDTO::getCategoryName).containsExactly("Electronics");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(pageHits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void writesEvictListingAndLookups() {
+        CategoryDTO electronics = categoryService.createCategory(category("Electronics"));
+        assertThat(categoryService.getAllCategories(0, 10, "categoryId", "asc").getContent()).hasSize(1);
+        assertThat(categoryCache.findById(electronics.getCategoryId())).isPresent();
+
+        categoryService.createCategory(category("Furniture"));
+        assertThat(categoryService.getAllCategories(0, 10, "categoryId", "asc").getContent()).hasSize(2);
+
+        categoryService.updateCategory(category("Gadgets"), electronics.getCategoryId());
+        assertThat(categoryCache.findById(electronics.getCategoryId()))
+                .hasValueSatisfying(dto -> assertThat(dto.getCategoryName()).isEqualTo("Gadgets"));
+        assertThat(categoryCache.findByName("Electronics")).isEmpty();
+
+        categoryService.deleteCategory(electronics.getCategoryId());
+        assertThat(categoryCache.findById(electronics.getCategoryId())).isEmpty();
+        assertThat(categoryService.getAllCategories(0, 10, "categoryId", "asc").getContent())
+                .extracting(CategoryDTO::getCategoryName).containsExactly("Furniture");
+    }
+
+    private double pageHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "categories.pages").tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private CategoryDTO category(String name) {
+        CategoryDTO categoryDTO = new CategoryDTO();
+        categoryDTO.setCategoryName(name);
+        return categoryDTO;
+    }
+}
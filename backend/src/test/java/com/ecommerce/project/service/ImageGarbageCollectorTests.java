@@ -0,0 +1,133 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ImageGarbageCollector.class, ProductImagePipeline.class, ImageServer.class})
+class ImageGarbageCollectorTests {
+
+    private static final String REFERENCED = "1".repeat(64);
+    private static final String ORPHANED = "2".repeat(64);
+    private static final String FRESH = "3".repeat(64);
+    private static final String LOST = "4".repeat(64);
+    private static final String LEGACY_ORPHAN = "0f8fad5b-d9cb-469f-a165-70867728950e.jpg";
+    private static final String LEGACY_REFERENCED = "7c9e6679-7425-40de-944b-e07fc1f90ae7.png";
+
+    @TempDir
+    static Path imageDir;
+
+    @DynamicPropertySource
+    static void imageProperties(DynamicPropertyRegistry registry) {
+        registry.add("project.image", () -> imageDir.toString());
+    }
+
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoSpyBean
+    private ImageServer imageServer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (var files = Files.list(imageDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void unreferencedBlobsAndTheirRenditionsAreReclaimed() throws Exception {
+        Path referenced = write(REFERENCED + ".png", true);
+        Path referencedRendition = write(REFERENCED + "-160.jpg", true);
+        Path orphaned = write(ORPHANED + ".png", true);
+        Path orphanedSmall = write(ORPHANED + "-160.jpg", true);
+        Path orphanedLarge = write(ORPHANED + "-960.jpg", true);
+        Path fresh = write(FRESH + ".png", false);
+        Path lostRendition = write(LOST + "-480.jpg", true);
+        Path legacyOrphan = write(LEGACY_ORPHAN, true);
+        Path legacyReferenced = write(LEGACY_REFERENCED, true);
+        Path placeholder = write("default.png", true);
+        Path staleUpload = write("upload-123.tmp", true);
+
+        persistProduct("Shared photo one", REFERENCED + ".png");
+        persistProduct("Shared photo two", REFERENCED + ".png");
+        persistProduct("Legacy photo", LEGACY_REFERENCED);
+        persistProduct("Placeholder", "default.png");
+        entityManager.flush();
+
+        ImageGarbageCollector.Result result = imageGarbageCollector.collect();
+
+        assertThat(result.deletedFiles()).isEqualTo(6);
+        assertThat(result.deletedBytes()).isEqualTo(6 * 100);
+        assertThat(orphaned).doesNotExist();
+        assertThat(orphanedSmall).doesNotExist();
+        assertThat(orphanedLarge).doesNotExist();
+        assertThat(lostRendition).doesNotExist();
+        assertThat(legacyOrphan).doesNotExist();
+        assertThat(staleUpload).doesNotExist();
+        assertThat(referenced).exists();
+        assertThat(referencedRendition).exists();
+        assertThat(fresh).exists();
+        assertThat(legacyReferenced).exists();
+        assertThat(placeholder).exists();
+    }
+
+    @Test
+    void blobRefreshedWhileCollectingIsKept() throws Exception {
+        Path staleUpload = write("upload-123.tmp", true);
+        Path orphaned = write(ORPHANED + ".png", true);
+        Path rendition = write(ORPHANED + "-160.jpg", true);
+        //the same picture is uploaded again after the blob was picked as garbage, while earlier files are deleted
+        doAnswer(invocation -> {
+            Files.setLastModifiedTime(orphaned, FileTime.from(Instant.now()));
+            return invocation.callRealMethod();
+        }).when(imageServer).evict("upload-123.tmp");
+
+        ImageGarbageCollector.Result result = imageGarbageCollector.collect();
+
+        assertThat(result.deletedFiles()).isEqualTo(1);
+        assertThat(staleUpload).doesNotExist();
+        assertThat(orphaned).exists();
+        assertThat(rendition).exists();
+    }
+
+    private void persistProduct(String name, String image) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription("Description of " + name);
+        product.setQuantity(1);
+        product.setImage(image);
+        entityManager.persist(product);
+    }
+
+    private static Path write(String name, boolean old) throws Exception {
+        Path file = Files.write(imageDir.resolve(name), new byte[100]);
+        if (old) {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        }
+        return file;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.UploadCapacityExceededException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringJUnitConfig(classes = {ImageUploadLimiter.class, FileServiceImpl.class})
+@TestPropertySource(properties = {
+        "product.image.upload.max-bytes=100000",
+        "product.image.upload.max-in-flight-bytes=150000",
+        "product.image.upload.wait-ms=50"
+})
+class ImageUploadLimiterTests {
+
+    @TempDir
+    Path imageDir;
+
+    @Autowired
+    private ImageUploadLimiter imageUploadLimiter;
+
+    @Autowired
+    private FileService fileService;
+
+    @Test
+    void declaredOversizedUploadsAreRejectedBeforeReading() {
+        assertThatThrownBy(() -> imageUploadLimiter.reserve(100_001))
+                .isInstanceOf(MaxUploadSizeExceededException.class);
+        assertThat(imageUploadLimiter.availableBytes()).isEqualTo(150_000);
+    }
+
+    @Test
+    void inFlightBytesAreBoundedAcrossUploads() {
+        try (ImageUploadLimiter.Permit first = imageUploadLimiter.reserve(100_000)) {
+            assertThatThrownBy(() -> imageUploadLimiter.reserve(60_000))
+                    .isInstanceOf(UploadCapacityExceededException.class);
+            try (ImageUploadLimiter.Permit second = imageUploadLimiter.reserve(50_000)) {
+                assertThat(imageUploadLimiter.availableBytes()).isZero();
+            }
+            //unknown length reserves the per-file maximum
+            assertThatThrownBy(() -> imageUploadLimiter.reserve(-1))
+                    .isInstanceOf(UploadCapacityExceededException.class);
+        }
+        assertThat(imageUploadLimiter.availableBytes()).isEqualTo(150_000);
+    }
+
+    @Test
+    void undeclaredOversizedStreamIsAbortedAndCleanedUp() throws Exception {
+        InputStream body = new ByteArrayInputStream(new byte[250_000]);
+
+        assertThatThrownBy(() -> fileService.uploadImage(imageDir.toString(), body, ".png", imageUploadLimiter.maxBytes()))
+                .isInstanceOf(MaxUploadSizeExceededException.class);
+
+        //stopped one buffer past the limit instead of draining the body
+        assertThat(body.available()).isGreaterThan(0);
+        try (Stream<Path> files = Files.list(imageDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void streamedUploadIsStoredUnderItsContentHash() throws Exception {
+        byte[] content = new byte[90_000];
+        content[0] = 1;
+
+        String first = fileService.uploadImage(imageDir.toString(), new ByteArrayInputStream(content), ".jpg", 100_000);
+        String second = fileService.uploadImage(imageDir.toString(), new ByteArrayInputStream(content), ".jpg", 100_000);
+
+        assertThat(first).matches("[0-9a-f]{64}\\.jpg").isEqualTo(second);
+        assertThat(Files.size(imageDir.resolve(first))).isEqualTo(90_000);
+        try (Stream<Path> files = Files.list(imageDir)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.CartItemRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.Repository.SellerOrderRepository;
+import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.mapper.OrderMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderResponse;
+import com.ecommerce.project.util.AuthUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "cart.write-behind.enabled=false"
+})
+@Import({OrderServiceImpl.class, StockReservationServiceImpl.class, CartWriteBehindStore.class, CartPricing.class,
+        OrderMapperImpl.class, ProductMapperImpl.class})
+class OrderServiceTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private SellerOrderRepository sellerOrderRepository;
+
+    @MockitoBean
+    private AuthUtil authUtil;
+
+    @Test
+    void placeOrderIssuesConstantStatementsRegardlessOfCartSize() {
+        Category category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+
+        //the first order also pays for allocating a block of order item ids
+        placeOrder(customerWithCart("warmup", 1, category, seller("warmup")));
+
+        //every line from a different seller, so per-seller lookups would show up as extra statements
+        long oneLine = statementsToPlaceOrder(customerWithCart("small", 1, category, i -> seller("small" + i)));
+        long thirtyLines = statementsToPlaceOrder(customerWithCart("large", 30, category, i -> seller("large" + i)));
+
+        assertThat(thirtyLines).isEqualTo(oneLine);
+        assertThat(thirtyLines).isLessThanOrEqualTo(12);
+    }
+
+    @Test
+    void placeOrderReservesStockAndClearsCart() {
+        Category category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+        User seller = new User("seller", "seller@example.com", "password");
+        entityManager.persist(seller);
+        Address address = customerWithCart("buyer", 3, category, seller);
+        entityManager.clear();
+
+        OrderDTO order = orderService.placeOrder("buyer@example.com", address.getAddressId(),
+                "card", "Stripe", "pg-1", "succeeded", "ok");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(order.getOrderItems()).hasSize(3);
+        assertThat(order.getTotalAmount()).isEqualTo(60.0);
+        assertThat(productRepository.findAll())
+                .filteredOn(product -> product.getUser() != null)
+                .allSatisfy(product -> assertThat(product.getQuantity()).isEqualTo(98));
+        assertThat(cartItemRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void cancellingReleasesStockOnceAndCannotBeUndone() {
+        Category category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+        User seller = new User("seller", "seller@example.com", "password");
+        entityManager.persist(seller);
+        Address address = customerWithCart("buyer", 2, category, seller);
+        entityManager.clear();
+        OrderDTO order = orderService.placeOrder("buyer@example.com", address.getAddressId(),
+                "card", "Stripe", "pg-1", "succeeded", "ok");
+        entityManager.flush();
+        entityManager.clear();
+
+        orderService.updateOrder(order.getOrderId(), "Shipped");
+        orderService.updateOrder(order.getOrderId(), AppConstants.ORDER_STATUS_CANCELLED);
+        entityManager.flush();
+        entityManager.clear();
+        OrderDTO cancelledAgain = orderService.updateOrder(order.getOrderId(), "cancelled");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(cancelledAgain.getOrderStatus()).isEqualTo(AppConstants.ORDER_STATUS_CANCELLED);
+        assertThatThrownBy(() -> orderService.updateOrder(order.getOrderId(), "Shipped"))
+                .isInstanceOf(ApiException.class);
+        assertThat(productRepository.findAll())
+                .filteredOn(product -> product.getUser() != null)
+                .allSatisfy(product -> assertThat(product.getQuantity()).isEqualTo(100));
+    }
+
+    @Test
+    void sellerOrdersArePagedFromTheSellerIndex() {
+        Category category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+        User seller = new User("seller", "seller@example.com", "password");
+        entityManager.persist(seller);
+        User otherSeller = new User("other", "other@example.com", "password");
+        entityManager.persist(otherSeller);
+
+        for (int i = 0; i < 3; i++) {
+            placeOrder(customerWithCart("buyer" + i, 2, category, seller));
+        }
+        for (int i = 0; i < 4; i++) {
+            placeOrder(customerWithCart("otherbuyer" + i, 1, category, otherSeller));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        when(authUtil.loggedInUserId()).thenReturn(seller.getUserId());
+        OrderResponse firstPage = orderService.getAllSellerOrders(0, 2, "totalAmount", "asc");
+        OrderResponse secondPage = orderService.getAllSellerOrders(1, 2, "totalAmount", "asc");
+
+        assertThat(firstPage.getContent()).hasSize(2);
+        assertThat(secondPage.getContent()).hasSize(1);
+        assertThat(firstPage.getTotalElements()).isEqualTo(3);
+        assertThat(firstPage.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    void backfillIndexesOrdersPlacedBeforeTheIndexExisted() {
+        Category category = new Category();
+        category.setCategoryName("Electronics");
+        entityManager.persist(category);
+        User seller = new User("seller", "seller@example.com", "password");
+        entityManager.persist(seller);
+        placeOrder(customerWithCart("buyer", 3, category, seller));
+        sellerOrderRepository.deleteAllInBatch();
+
+        ((OrderServiceImpl) orderService).backfillSellerOrderIndex();
+
+        assertThat(sellerOrderRepository.findAll())
+                .singleElement()
+                .satisfies(sellerOrder -> assertThat(sellerOrder.getSellerId()).isEqualTo(seller.getUserId()));
+    }
+
+    private void placeOrder(Address address) {
+        entityManager.clear();
+        orderService.placeOrder(address.getUser().getEmail(), address.getAddressId(),
+                "card", "Stripe", "pg-1", "succeeded", "ok");
+        entityManager.flush();
+    }
+
+    private long statementsToPlaceOrder(Address address) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        orderService.placeOrder(address.getUser().getEmail(), address.getAddressId(),
+                "card", "Stripe", "pg-1", "succeeded", "ok");
+        entityManager.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User seller(String userName) {
+        User seller = new User(userName + "-seller", userName + "-seller@example.com", "password");
+        entityManager.persist(seller);
+        return seller;
+    }
+
+    private Address customerWithCart(String userName, int lines, Category category, User seller) {
+        return customerWithCart(userName, lines, category, i -> seller);
+    }
+
+    private Address customerWithCart(String userName, int lines, Category category, IntFunction<User> sellerOfLine) {
+        User customer = new User(userName, userName + "@example.com", "password");
+        entityManager.persist(customer);
+
+        Address address = new Address();
+        address.setStreet("Main Street");
+        address.setBuildingName("Building");
+        address.setCity("Kolkata");
+        address.setState("West Bengal");
+        address.setCountry("India");
+        address.setPincode("700001");
+        address.setUser(customer);
+        entityManager.persist(address);
+
+        Cart cart = new Cart();
+        cart.setUser(customer);
+        entityManager.persist(cart);
+
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setProductName(userName + " product " + i);
+            product.setDescription("Description " + i);
+            product.setQuantity(100);
+            product.setPrice(10);
+            product.setSpecialPrice(10);
+            product.setCategory(category);
+            product.setUser(sellerOfLine.apply(i));
+            entityManager.persist(product);
+
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItem.setProductPrice(10);
+            entityManager.persist(cartItem);
+        }
+        entityManager.flush();
+        return address;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.project.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(classes = {ProductImagePipeline.class, FileServiceImpl.class})
+class ProductImagePipelineTests {
+
+    @TempDir
+    static Path imageDir;
+
+    @DynamicPropertySource
+    static void imageProperties(DynamicPropertyRegistry registry) {
+        registry.add("project.image", () -> imageDir.toString());
+    }
+
+    @Autowired
+    private ProductImagePipeline productImagePipeline;
+
+    @Autowired
+    private FileService fileService;
+
+    @Test
+    void uploadsAreNamedByContent() throws Exception {
+        byte[] png = png(300, 200, Color.BLUE);
+
+        String first = fileService.uploadImage(imageDir.toString(), new MockMultipartFile("image", "a.PNG", "image/png", png));
+        String second = fileService.uploadImage(imageDir.toString(), new MockMultipartFile("image", "b.png", "image/png", png));
+
+        assertThat(first).matches("[0-9a-f]{64}\\.png").isEqualTo(second);
+        assertThat(imageDir.resolve(first)).exists();
+    }
+
+    @Test
+    void renditionsAreScaledFromOneDecodeAndPublishedWhenComplete() throws Exception {
+        String imageName = fileService.uploadImage(imageDir.toString(),
+                new MockMultipartFile("image", "large.png", "image/png", png(2000, 1000, Color.RED)));
+        assertThat(productImagePipeline.renditions(imageName)).isEmpty();
+
+        productImagePipeline.submit(imageName).get(30, TimeUnit.SECONDS);
+
+        Map<Integer, String> renditions = productImagePipeline.renditions(imageName);
+        assertThat(renditions).containsOnlyKeys(160, 480, 960);
+        for (Map.Entry<Integer, String> rendition : renditions.entrySet()) {
+            BufferedImage image = ImageIO.read(imageDir.resolve(rendition.getValue()).toFile());
+            assertThat(image.getWidth()).isEqualTo(rendition.getKey());
+            assertThat(image.getHeight()).isEqualTo(rendition.getKey() / 2);
+        }
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() throws Exception {
+        String imageName = fileService.uploadImage(imageDir.toString(),
+                new MockMultipartFile("image", "small.png", "image/png", png(200, 100, Color.GREEN)));
+
+        productImagePipeline.submit(imageName).get(30, TimeUnit.SECONDS);
+
+        Map<Integer, String> renditions = productImagePipeline.renditions(imageName);
+        assertThat(ImageIO.read(imageDir.resolve(renditions.get(160)).toFile()).getWidth()).isEqualTo(160);
+        assertThat(ImageIO.read(imageDir.resolve(renditions.get(960)).toFile()).getWidth()).isEqualTo(200);
+    }
+
+    @Test
+    void legacyImagesHaveNoRenditions() {
+        assertThat(productImagePipeline.renditions("default.png")).isEmpty();
+        assertThat(productImagePipeline.renditions(null)).isEmpty();
+    }
+
+    private static byte[] png(int width, int height, Color color) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
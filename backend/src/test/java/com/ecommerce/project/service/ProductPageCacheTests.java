@@ -0,0 +1,122 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.event.CatalogChangedEvent;
+import com.ecommerce.project.event.StockChangedEvent;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.util.CatalogVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(classes = {ProductPageCache.class, CatalogVersion.class, ProductPageCacheTests.Config.class})
+class ProductPageCacheTests {
+
+    @Configuration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ProductPageCache productPageCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher.publishEvent(new CatalogChangedEvent("test setup"));
+        loads.set(0);
+    }
+
+    @Test
+    void samePageIsServedFromSerializedBytes() throws Exception {
+        byte[] first = defaultPage();
+        byte[] second = defaultPage();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(objectMapper.readValue(second, ProductResponse.class).getContent())
+                .extracting(ProductDTO::getProductName).containsExactly("Phone");
+        assertThat(productPageCache.footprintBytes()).isGreaterThanOrEqualTo(first.length);
+        assertThat(meterRegistry.get("product.page.cache.bytes").gauge().value())
+                .isEqualTo(productPageCache.footprintBytes());
+    }
+
+    @Test
+    void differentParametersAreCachedSeparately() {
+        defaultPage();
+        productPageCache.getPage(0, 10, "productId", "asc", "phone", null, this::load);
+        productPageCache.getPage(0, 10, "productId", "asc", null, "Electronics", this::load);
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void catalogChangeDropsCachedPages() {
+        defaultPage();
+
+        eventPublisher.publishEvent(new CatalogChangedEvent("product updated"));
+        defaultPage();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void stockChangeDropsCachedPages() {
+        defaultPage();
+
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(1L)));
+        defaultPage();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private byte[] defaultPage() {
+        return productPageCache.getPage(0, 10, "productId", "asc", null, null, this::load);
+    }
+
+    private ProductResponse load() {
+        loads.incrementAndGet();
+        ProductDTO product = new ProductDTO();
+        product.setProductId(1L);
+        product.setProductName("Phone");
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(List.of(product));
+        productResponse.setPageNumber(0);
+        productResponse.setPageSize(10);
+        productResponse.setTotalElements(1L);
+        productResponse.setTotalPages(1);
+        productResponse.setLastPage(true);
+        return productResponse;
+    }
+}
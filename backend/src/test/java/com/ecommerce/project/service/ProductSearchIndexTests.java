@@ -0,0 +1,93 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+    private final ProductSearchIndex productSearchIndex = new ProductSearchIndex();
+
+    @Test
+    void indexedProductsAreFoundByWordAndPrefixUntilRemoved() {
+        productSearchIndex.index(product(1L, "Smartphone X", "A fast phone"));
+        productSearchIndex.index(product(2L, "Laptop", "Thin and light"));
+
+        assertThat(productSearchIndex.search("phone")).containsExactly(1L);
+        assertThat(productSearchIndex.search("lap")).containsExactly(2L);
+        assertThat(productSearchIndex.search("thin LIGHT")).containsExactly(2L);
+        assertThat(productSearchIndex.search("phone laptop")).isEmpty();
+
+        productSearchIndex.index(product(1L, "Tablet", "Large screen"));
+        assertThat(productSearchIndex.search("phone")).isEmpty();
+        assertThat(productSearchIndex.search("tablet")).containsExactly(1L);
+
+        productSearchIndex.remove(1L);
+        assertThat(productSearchIndex.search("tablet")).isEmpty();
+    }
+
+    @Test
+    void rankingFavoursNameMatchesAndRareTerms() {
+        productSearchIndex.index(product(1L, "Case", "Fits any phone"));
+        productSearchIndex.index(product(2L, "Phone", "Unlocked"));
+        productSearchIndex.index(product(3L, "Phone stand", "Aluminium"));
+        productSearchIndex.index(product(4L, "Charger", "Phone charger"));
+        productSearchIndex.index(product(5L, "Cable", "Charger cable"));
+        productSearchIndex.index(product(6L, "Aluminium mount", "Holds a phone"));
+
+        //a name hit outweighs a description hit, ties fall back to the product id
+        assertThat(productSearchIndex.search("phone")).containsExactly(2L, 3L, 1L, 4L, 6L);
+        assertThat(productSearchIndex.search("charger")).containsExactly(4L, 5L);
+        //both match both words, but "aluminium" is the rarer term and only product 6 has it in the name
+        assertThat(productSearchIndex.search("phone aluminium")).containsExactly(6L, 3L);
+    }
+
+    @Test
+    void readersNeverSeeAHalfReindexedProduct() throws Exception {
+        productSearchIndex.index(product(1L, "Phone", "Always searchable"));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    //same terms on every reindex, other products come and go
+                    productSearchIndex.index(product(1L, "Phone", "Always searchable"));
+                    productSearchIndex.index(product(100L + i % 50, "Phone case " + i, "Accessory"));
+                    productSearchIndex.remove(100L + (i + 25) % 50);
+                }
+                writing.set(false);
+                return null;
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        assertThat(productSearchIndex.search("phone searchable")).containsExactly(1L);
+                        assertThat(productSearchIndex.search("phone")).contains(1L);
+                    }
+                    return null;
+                }));
+            }
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Product product(Long productId, String name, String description) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName(name);
+        product.setDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.CategoryRepository;
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.config.AppConfig;
+import com.ecommerce.project.mapper.CategoryMapperImpl;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.util.AuthUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ProductServiceImpl.class, ProductSearchIndex.class, CategoryServiceImplementation.class, CategoryCache.class,
+        ProductMapperImpl.class, CategoryMapperImpl.class, AppConfig.class})
+class ProductSearchTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private CartService cartService;
+
+    @MockitoBean
+    private FileService fileService;
+
+    @MockitoBean
+    private AuthUtil authUtil;
+
+    @MockitoBean
+    private ProductImagePipeline productImagePipeline;
+
+    @MockitoBean
+    private ImageUploadLimiter imageUploadLimiter;
+
+    @BeforeEach
+    void setUp() {
+        //the index outlives each test's rolled back transaction
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void productsOfADeletedCategoryLeaveTheSearchResults() {
+        Category phones = saveCategory("Phones");
+        Category laptops = saveCategory("Laptops");
+        for (int i = 0; i < 3; i++) {
+            saveProduct(phones, "Phone " + i);
+        }
+        Product laptop = saveProduct(laptops, "Laptop with phone dock");
+        //a fresh persistence context, as in a real request, so the delete cascades to the loaded products
+        entityManager.clear();
+
+        categoryService.deleteCategory(phones.getCategoryId());
+
+        assertThat(productSearchIndex.search("phone")).containsExactly(laptop.getProductId());
+        ProductResponse response = productService.searchProducts("phone", 0, 2);
+        assertThat(response.getContent()).extracting(ProductDTO::getProductId).containsExactly(laptop.getProductId());
+        assertThat(response.getTotalElements()).isEqualTo(1);
+        assertThat(response.getTotalPages()).isEqualTo(1);
+        assertThat(response.isLastPage()).isTrue();
+    }
+
+    @Test
+    void totalsCountOnlyProductsThatStillExist() {
+        Category phones = saveCategory("Phones");
+        Product kept = saveProduct(phones, "Phone kept");
+        Product gone = saveProduct(phones, "Phone gone");
+        //removed behind the index's back
+        productRepository.deleteById(gone.getProductId());
+        productRepository.flush();
+
+        ProductResponse response = productService.searchProducts("phone", 0, 1);
+
+        assertThat(response.getContent()).extracting(ProductDTO::getProductId).containsExactly(kept.getProductId());
+        assertThat(response.getTotalElements()).isEqualTo(1);
+        assertThat(response.getTotalPages()).isEqualTo(1);
+        assertThat(productSearchIndex.search("phone")).containsExactly(kept.getProductId());
+    }
+
+    private Category saveCategory(String name) {
+        Category category = new Category();
+        category.setCategoryName(name);
+        return categoryRepository.save(category);
+    }
+
+    private Product saveProduct(Category category, String name) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription("Description of " + name);
+        product.setQuantity(10);
+        product.setCategory(category);
+        product = productRepository.saveAndFlush(product);
+        productSearchIndex.index(product);
+        return product;
+    }
+}
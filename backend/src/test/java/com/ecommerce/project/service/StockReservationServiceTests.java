@@ -0,0 +1,152 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(StockReservationServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTests {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationServiceTests.class);
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsOnHotProductNeverOversell() throws Exception {
+        int stock = 100;
+        Product product = createProduct(stock);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long elapsed = runConcurrently(thread -> {
+            try {
+                stockReservationService.reserve(Map.of(product.getProductId(), 1));
+                reserved.incrementAndGet();
+            } catch (ApiException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        logger.info("Hot product: {} reservations in {} ms", THREADS * ATTEMPTS_PER_THREAD, elapsed);
+        assertThat(reserved.get()).isEqualTo(stock);
+        assertThat(rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - stock);
+        assertThat(productRepository.findById(product.getProductId()).orElseThrow().getQuantity()).isZero();
+    }
+
+    @Test
+    void concurrentCheckoutsOnDistinctProductsAllSucceed() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            products.add(createProduct(ATTEMPTS_PER_THREAD));
+        }
+
+        long elapsed = runConcurrently(thread ->
+                stockReservationService.reserve(Map.of(products.get(thread).getProductId(), 1)));
+
+        logger.info("Distinct products: {} reservations in {} ms", THREADS * ATTEMPTS_PER_THREAD, elapsed);
+        for (Product product : products) {
+            assertThat(productRepository.findById(product.getProductId()).orElseThrow().getQuantity()).isZero();
+        }
+    }
+
+    @Test
+    void overlappingCartsInOppositeOrderAllSucceed() throws Exception {
+        Product first = createProduct(THREADS * ATTEMPTS_PER_THREAD);
+        Product second = createProduct(THREADS * ATTEMPTS_PER_THREAD);
+
+        runConcurrently(thread -> {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            if (thread % 2 == 0) {
+                quantities.put(first.getProductId(), 1);
+                quantities.put(second.getProductId(), 1);
+            } else {
+                quantities.put(second.getProductId(), 1);
+                quantities.put(first.getProductId(), 1);
+            }
+            stockReservationService.reserve(quantities);
+        });
+
+        assertThat(productRepository.findById(first.getProductId()).orElseThrow().getQuantity()).isZero();
+        assertThat(productRepository.findById(second.getProductId()).orElseThrow().getQuantity()).isZero();
+    }
+
+    @Test
+    void failedMultiProductReservationLeavesStockUntouched() {
+        Product available = createProduct(5);
+        Product soldOut = createProduct(1);
+
+        try {
+            stockReservationService.reserve(Map.of(available.getProductId(), 2, soldOut.getProductId(), 2));
+        } catch (ApiException expected) {
+        }
+
+        assertThat(productRepository.findById(available.getProductId()).orElseThrow().getQuantity()).isEqualTo(5);
+        assertThat(productRepository.findById(soldOut.getProductId()).orElseThrow().getQuantity()).isEqualTo(1);
+    }
+
+    private long runConcurrently(IntConsumer attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    attempt.accept(thread);
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private Product createProduct(int quantity) {
+        Product product = new Product();
+        product.setProductName("Stock test product");
+        product.setDescription("Stock test description");
+        product.setQuantity(quantity);
+        product.setPrice(10);
+        product.setSpecialPrice(10);
+        return productRepository.save(product);
+    }
+}
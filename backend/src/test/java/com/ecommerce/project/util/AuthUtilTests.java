@@ -0,0 +1,98 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.Repository.UserRepository;
+import com.ecommerce.project.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.CustomScopeConfigurer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.RequestScope;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AuthUtil.class, CurrentUserContext.class, AuthUtilTests.RequestScopeConfig.class})
+class AuthUtilTests {
+
+    @TestConfiguration
+    static class RequestScopeConfig {
+        //a JPA slice is not a web context, so the request scope has to be registered by hand
+        @Bean
+        static CustomScopeConfigurer requestScope() {
+            CustomScopeConfigurer configurer = new CustomScopeConfigurer();
+            configurer.addScope(WebApplicationContext.SCOPE_REQUEST, new RequestScope());
+            return configurer;
+        }
+    }
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.saveAndFlush(new User("buyer", "buyer@example.com", "password"));
+        //a principal without id and email, as with subject-only tokens, forces the user lookup
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("buyer", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedLookupsInOneRequestRunAtMostOneQuery() {
+        assertThat(statementsForOneRequest()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void everyRequestResolvesTheUserAgain() {
+        assertThat(statementsForOneRequest()).isEqualTo(1);
+        assertThat(statementsForOneRequest()).isEqualTo(1);
+    }
+
+    private long statementsForOneRequest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            statistics.clear();
+            for (int i = 0; i < 5; i++) {
+                assertThat(authUtil.loggedInUser().getUserId()).isEqualTo(user.getUserId());
+                assertThat(authUtil.loggedInEmail()).isEqualTo("buyer@example.com");
+                assertThat(authUtil.loggedInUserId()).isEqualTo(user.getUserId());
+            }
+            return statistics.getPrepareStatementCount();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.Repository.ProductRepository;
+import com.ecommerce.project.exceptions.ApiException;
+import com.ecommerce.project.model.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class ProductCursorTests {
+
+    private static final int PRODUCT_COUNT = 23;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = new Product();
+            //few distinct sort values, so pages have to break ties on productId
+            product.setProductName("Product " + (char) ('a' + i % 4));
+            product.setDescription("Description " + i);
+            product.setQuantity(10);
+            product.setPrice(10 + i % 3);
+            product.setDiscount(i % 2);
+            product.setSpecialPrice(20 - i % 5);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "productId, ASC", "productId, DESC",
+            "productName, ASC", "productName, DESC",
+            "price, ASC", "price, DESC",
+            "discount, ASC", "discount, DESC",
+            "specialPrice, ASC", "specialPrice, DESC"
+    })
+    void seekingPageByPageVisitsEveryProductOnceInSortOrder(String sortBy, Sort.Direction direction) {
+        Sort sort = ProductCursor.sort(sortBy, direction);
+        List<Long> expected = productRepository.findAll(sort).stream().map(Product::getProductId).toList();
+
+        List<Long> visited = new ArrayList<>();
+        String token = null;
+        do {
+            Specification<Product> spec = token == null
+                    ? Specification.where(null)
+                    : ProductCursor.decode(token, sortBy, direction).toSpecification();
+            List<Product> page = productRepository.findBy(spec, query -> query.sortBy(sort).limit(PAGE_SIZE).all());
+            page.forEach(product -> visited.add(product.getProductId()));
+            token = page.size() < PAGE_SIZE ? null
+                    : ProductCursor.after(page.get(page.size() - 1), sortBy, direction).encode();
+        } while (token != null);
+
+        assertThat(visited).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void encodedCursorDecodesToTheSameSeekPosition() {
+        Product product = productRepository.findAll().get(0);
+        String token = ProductCursor.after(product, "price", Sort.Direction.DESC).encode();
+
+        assertThat(ProductCursor.decode(token, "price", Sort.Direction.DESC).encode()).isEqualTo(token);
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        Product product = productRepository.findAll().get(0);
+        String token = ProductCursor.after(product, "price", Sort.Direction.ASC).encode();
+
+        assertThatThrownBy(() -> ProductCursor.decode("not base64!", "price", Sort.Direction.ASC))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(encode("1|price|ASC"), "price", Sort.Direction.ASC))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(encode("x|price|ASC|10.0"), "price", Sort.Direction.ASC))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(encode("1|price|ASC|cheap"), "price", Sort.Direction.ASC))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token, "price", Sort.Direction.DESC))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token, "productName", Sort.Direction.ASC))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> ProductCursor.sort("quantity", Sort.Direction.ASC))
+                .isInstanceOf(ApiException.class);
+    }
+
+    private String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.model.OrderItem;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(SequenceAligner.class)
+class SequenceAlignerTests {
+
+    @Autowired
+    private SequenceAligner sequenceAligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void rowsWrittenBeforeTheSequenceExistedAreNotReused() {
+        //ids handed out by the old identity column
+        for (long id = 1; id <= 120; id++) {
+            jdbcTemplate.update("INSERT INTO order_item (order_item_id, quantity, discount, ordered_product_price) " +
+                    "VALUES (?, 1, 0, 0)", id);
+        }
+
+        sequenceAligner.align();
+        OrderItem orderItem = new OrderItem();
+        orderItem.setQuantity(1);
+        entityManager.persist(orderItem);
+        entityManager.flush();
+
+        assertThat(orderItem.getOrderItemId()).isGreaterThan(120);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item", Long.class)).isEqualTo(121);
+    }
+
+    @Test
+    void sequenceAheadOfTheTableIsLeftAlone() {
+        sequenceAligner.align();
+        long before = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR cart_item_seq", Long.class);
+
+        sequenceAligner.align();
+
+        //only the probe of the second run was consumed
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR cart_item_seq", Long.class))
+                .isEqualTo(before + 100);
+    }
+}
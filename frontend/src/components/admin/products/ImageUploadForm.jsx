@@ -39,12 +39,9 @@ const ImageUploadForm = ({ setOpen, product }) => {
       return;
     }
 
-    const formData = new FormData();
-    formData.append("image", selectedFile);
-
     dispatch(
       updateProductImageFromDashboard(
-        formData,
+        selectedFile,
         product.id,
         toast,
         setLoader,
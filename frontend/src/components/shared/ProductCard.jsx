@@ -2,6 +2,7 @@ import { useState } from "react";
 import { FaShoppingCart } from "react-icons/fa";
 import ProductViewModal from "./ProductViewModal";
 import truncateText from "../../utils/truncateText";
+import imageSrcSet from "../../utils/imageSrcSet";
 import { useDispatch } from "react-redux";
 import { addToCart } from "../../store/actions";
 import toast from "react-hot-toast";
@@ -10,6 +11,7 @@ const ProductCard = ({
   productId,
   productName,
   image,
+  images,
   description,
   quantity,
   price,
@@ -42,6 +44,7 @@ const ProductCard = ({
             id: productId,
             productName,
             image,
+            images,
             description,
             quantity,
             price,
@@ -54,6 +57,8 @@ const ProductCard = ({
         <img
           className="w-full h-full cursor-pointer transition-transform duration-300 transform hover:scale-105"
           src={image}
+          srcSet={imageSrcSet(images)}
+          sizes="(min-width: 1024px) 25vw, (min-width: 640px) 50vw, 100vw"
           alt={productName}
         ></img>
       </div>
@@ -64,6 +69,7 @@ const ProductCard = ({
               id: productId,
               productName,
               image,
+              images,
               description,
               quantity,
               price,
@@ -7,6 +7,7 @@ import {
 } from "@headlessui/react";
 import { Divider } from "@mui/material";
 import Status from "./Status";
+import imageSrcSet from "../../utils/imageSrcSet";
 import { MdClose, MdDone } from "react-icons/md";
 
 function ProductViewModal({ open, setOpen, product, isAvailable }) {
@@ -14,6 +15,7 @@ function ProductViewModal({ open, setOpen, product, isAvailable }) {
     id,
     productName,
     image,
+    images,
     description,
     quantity,
     price,
@@ -43,7 +45,12 @@ function ProductViewModal({ open, setOpen, product, isAvailable }) {
             >
               {image && (
                 <div className="flex justify-center aspect-3/2">
-                  <img src={image} alt={productName} />
+                  <img
+                    src={image}
+                    srcSet={imageSrcSet(images)}
+                    sizes="620px"
+                    alt={productName}
+                  />
                 </div>
               )}
 
@@ -459,12 +459,14 @@ export const deleteProduct =
   };
 
 export const updateProductImageFromDashboard =
-  (formData, productId, toast, setLoader, setOpen, isAdmin) =>
+  (file, productId, toast, setLoader, setOpen, isAdmin) =>
   async (dispatch) => {
     try {
       setLoader(true);
       const endpoint = isAdmin ? "/admin/products/" : "/seller/products/";
-      await api.put(`${endpoint}${productId}/image`, formData);
+      await api.put(`${endpoint}${productId}/image/stream`, file, {
+        headers: { "Content-Type": file.type },
+      });
       toast.success("Image upload successful");
       setLoader(false);
       setOpen(false);
@@ -0,0 +1,9 @@
+const imageSrcSet = (images)=>{
+    if(!images || Object.keys(images).length === 0){
+        return undefined;
+    }
+    return Object.entries(images)
+        .map(([width, url]) => `${url} ${width}w`)
+        .join(", ");
+}
+export default imageSrcSet;